@@ -0,0 +1,67 @@
+package com.veterinary.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.veterinary.web.cache.JsonFragmentCache;
+import com.veterinary.web.model.Appointment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de serializar la respuesta de {@code GET /api/appointments} cuando los clientes
+ * la consultan repetidamente: serialización completa en cada petición frente a la
+ * concatenación de fragmentos de {@link JsonFragmentCache}. {@code changedPercent} es
+ * el porcentaje de citas modificadas entre dos consultas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AppointmentListSerializationBenchmark {
+    @Param({"1000", "10000"})
+    int size;
+
+    @Param({"0", "5"})
+    int changedPercent;
+
+    private List<Appointment> appointments;
+    private ObjectWriter listWriter;
+    private JsonFragmentCache cache;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = BenchmarkData.objectMapper();
+        appointments = BenchmarkData.appointments(size, 42);
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Appointment.class));
+        cache = new JsonFragmentCache(mapper, 512L * 1024 * 1024);
+        cache.toJsonArray(appointments, Appointment::getId, Appointment::getVersion);
+    }
+
+    @Benchmark
+    public byte[] serializeEveryPoll() throws JsonProcessingException {
+        churn();
+        return listWriter.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public byte[] concatenateCachedFragments() {
+        churn();
+        return cache.toJsonArray(appointments, Appointment::getId, Appointment::getVersion);
+    }
+
+    private void churn() {
+        int changes = size * changedPercent / 100;
+        for (int i = 0; i < changes; i++) {
+            int index = cursor++ % size;
+            Appointment next = appointments.get(index).copy();
+            next.setVersion(next.getVersion() + 1);
+            appointments.set(index, next);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.veterinary.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.web.config.JacksonConfig;
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.model.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos y configuración compartidos por los benchmarks.
+ */
+final class BenchmarkData {
+    private static final String[] STATUSES = {"pendiente", "confirmada", "completada", "cancelada"};
+    private static final String[] PRIORITIES = {"alta", "media", "baja"};
+    private static final String[] PET_TYPES = {"perro", "gato", "ave", "reptil", "conejo"};
+    static final int VETERINARIANS = 50;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * ObjectMapper equivalente al de la aplicación (incluye el filtro de campos).
+     */
+    static ObjectMapper objectMapper() {
+        return objectMapper(new JsonFactory());
+    }
+
+    /**
+     * Igual que {@link #objectMapper()} pero sobre otro formato (Smile, CBOR, ...).
+     */
+    static ObjectMapper objectMapper(JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().factory(factory);
+        new JacksonConfig().fieldsFilterCustomizer().customize(builder);
+        return builder.build();
+    }
+
+    static List<Appointment> appointments(int count, long seed) {
+        Random random = new Random(seed);
+        List<Appointment> result = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            Appointment a = new Appointment();
+            a.setId(String.valueOf(i + 1));
+            a.setPetId(String.valueOf(random.nextInt(Math.max(1, count / 2)) + 1));
+            a.setVeterinarian(veterinarian(random.nextInt(VETERINARIANS)));
+            a.setReason("Control general");
+            a.setDescription("Revisión anual, vacunas al día y control de peso del paciente número " + i);
+            a.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            a.setType("consulta");
+            a.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            a.setDate(String.format("2025-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            a.setTime(String.format("%02d:%02d", 8 + random.nextInt(10), random.nextBoolean() ? 0 : 30));
+            a.setCreatedAt(now - random.nextInt(1_000_000));
+            a.setUpdatedAt(a.getCreatedAt());
+            a.setVersion(i + 1);
+            List<String> history = new ArrayList<>();
+            history.add("creada:" + a.getCreatedAt());
+            for (int h = random.nextInt(4); h > 0; h--) {
+                history.add("actualizada:" + (a.getCreatedAt() + h));
+            }
+            a.setHistory(history);
+            result.add(a);
+        }
+        return result;
+    }
+
+    static String veterinarian(int index) {
+        return "Dr. Veterinario " + index;
+    }
+
+    static String ownerEmail(int index) {
+        return "dueno" + index + "@test.com";
+    }
+
+    /**
+     * Mascotas repartidas entre {@code count / 4} dueños.
+     */
+    static List<Pet> pets(int count, long seed) {
+        Random random = new Random(seed);
+        int owners = Math.max(1, count / 4);
+        List<Pet> result = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            int owner = random.nextInt(owners);
+            Pet p = new Pet();
+            p.setName("Mascota " + i);
+            p.setAge(random.nextInt(15));
+            p.setBreed("Mestizo");
+            p.setType(PET_TYPES[random.nextInt(PET_TYPES.length)]);
+            p.setFamilyType("mamifero");
+            p.setOwnerName("Dueño " + owner);
+            p.setOwnerPhone("555-" + owner);
+            p.setOwnerEmail(ownerEmail(owner));
+            p.setCreatedAt(now - random.nextInt(1_000_000));
+            result.add(p);
+        }
+        return result;
+    }
+
+    static List<User> users(int count) {
+        List<User> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User u = new User();
+            u.setName("Usuario " + i);
+            u.setEmail("usuario" + i + "@bench.test");
+            u.setPassword("123456");
+            u.setRole(i % 10 == 0 ? "veterinarian" : "user");
+            result.add(u);
+        }
+        return result;
+    }
+}
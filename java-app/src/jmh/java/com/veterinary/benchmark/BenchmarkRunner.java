@@ -0,0 +1,50 @@
+package com.veterinary.benchmark;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ejecuta los benchmarks JMH una vez por cada número de hilos de {@code --threads 1,4,8}; el resto
+ * de argumentos se pasan tal cual a JMH. Al final imprime una única tabla con todas las combinaciones
+ * de benchmark, parámetros e hilos, para que una regresión en cualquiera de ellas salte a la vista.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String threads = "1";
+        List<String> jmhArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = args[++i];
+            } else {
+                jmhArgs.add(args[i]);
+            }
+        }
+        CommandLineOptions options = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        List<String> summary = new ArrayList<>();
+        for (String count : threads.split(",")) {
+            int t = Integer.parseInt(count.trim());
+            for (RunResult run : new Runner(new OptionsBuilder().parent(options).threads(t).build()).run()) {
+                Result<?> result = run.getPrimaryResult();
+                String benchmark = run.getParams().getBenchmark();
+                StringBuilder params = new StringBuilder();
+                for (String key : run.getParams().getParamsKeys()) {
+                    params.append(key).append('=').append(run.getParams().getParam(key)).append(' ');
+                }
+                summary.add(String.format("%-70s %-36s %3d %14.3f ± %-10.3f %s",
+                        benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1),
+                        params.toString().trim(), t, result.getScore(), result.getScoreError(), result.getScoreUnit()));
+            }
+        }
+        System.out.printf("%n%-70s %-36s %3s %14s   %-10s %s%n", "Benchmark", "Parámetros", "Hil", "Score", "Error", "Unidad");
+        summary.forEach(System.out::println);
+    }
+}
@@ -0,0 +1,68 @@
+package com.veterinary.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.veterinary.web.model.Appointment;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de codificar y decodificar el listado de citas en cada formato que negocia la API.
+ * El tamaño del cuerpo de cada formato se imprime al preparar el benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BinaryFormatBenchmark {
+    @Param({"100000"})
+    int size;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    private List<Appointment> appointments;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = BenchmarkData.objectMapper(factory(format));
+        appointments = BenchmarkData.appointments(size, 42);
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Appointment.class));
+        reader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Appointment.class));
+        encoded = writer.writeValueAsBytes(appointments);
+        System.out.printf("%n%s: %d citas -> %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public List<Appointment> decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.veterinary.benchmark;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.service.AppointmentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AppointmentService#create} con su comprobación de solapamiento bajo los locks por
+ * (veterinario, fecha). {@code createFree} reserva siempre un hueco libre y {@code createConflicting}
+ * choca con una cita existente, que es el caso de los reintentos de un formulario. Con varios
+ * hilos, cada uno reserva para su propio veterinario salvo que {@code sharedVeterinarian} sea true;
+ * en ese caso los hilos de {@code createConflicting} compiten por el lock del mismo hueco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BookingConflictBenchmark {
+    private static final String DATE = "2025-06-15";
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean sharedVeterinarian;
+
+    private AppointmentService appointmentService;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    // El repositorio se rehace en cada iteración para que los altas de createFree no lo hagan crecer sin límite
+    @Setup(Level.Iteration)
+    public void setUp() {
+        AppointmentRepository repository = new AppointmentRepository();
+        repository.saveAll(BenchmarkData.appointments(size, 42));
+        appointmentService = new AppointmentService(repository);
+    }
+
+    @State(Scope.Thread)
+    public static class Booker {
+        String veterinarian;
+        int slot;
+
+        @Setup
+        public void setUp(BookingConflictBenchmark benchmark) {
+            veterinarian = benchmark.sharedVeterinarian
+                    ? "Dr. Compartido"
+                    : "Dr. Benchmark " + benchmark.threadIds.incrementAndGet();
+        }
+
+        @Setup(Level.Iteration)
+        public void occupy(BookingConflictBenchmark benchmark) {
+            try {
+                benchmark.appointmentService.create(appointment(veterinarian, DATE, "00:00"));
+            } catch (IllegalArgumentException alreadyTaken) {
+                // Otro hilo con el mismo veterinario ya lo ocupó
+            }
+        }
+    }
+
+    @Benchmark
+    public Appointment createFree(Booker booker) {
+        // 16 citas por día y un día distinto por hilo y tanda, como una agenda real que se va llenando
+        int slot = booker.slot++;
+        String day = "2030-" + Thread.currentThread().getId() + "-" + (slot / 16);
+        return appointmentService.create(appointment(booker.veterinarian, day, String.format("%02d:00", slot % 16)));
+    }
+
+    @Benchmark
+    public Object createConflicting(Booker booker) {
+        try {
+            return appointmentService.create(appointment(booker.veterinarian, DATE, "00:00"));
+        } catch (IllegalArgumentException conflict) {
+            return conflict;
+        }
+    }
+
+    private static Appointment appointment(String veterinarian, String date, String time) {
+        Appointment a = new Appointment();
+        a.setPetId("1");
+        a.setVeterinarian(veterinarian);
+        a.setReason("Benchmark");
+        a.setDate(date);
+        a.setTime(time);
+        return a;
+    }
+}
@@ -0,0 +1,186 @@
+package com.veterinary.benchmark;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.model.User;
+import com.veterinary.web.service.AppointmentService;
+import com.veterinary.web.service.AuthService;
+import com.veterinary.web.service.PetService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Genera una clínica sintética a través de los servicios reales, así que pasa por las mismas
+ * validaciones, índices y comprobaciones de solapamiento que la API. Con la misma semilla y los
+ * mismos tamaños produce exactamente los mismos datos e ids.
+ * <p>
+ * La popularidad de los veterinarios sigue una ley de Zipf ({@code skew}): unos pocos concentran
+ * la mayoría de las citas. Las horas se reparten en huecos de 15 minutos con picos de 9 a 11 y de
+ * 17 a 19. Si un hueco ya está ocupado, la cita se reintenta con otro veterinario y otra hora, como
+ * haría el cliente; el número de rechazos se informa porque también es carga del conflict check.
+ */
+final class ClinicDataGenerator {
+    private static final String[] PET_TYPES = {"perro", "gato", "ave", "reptil", "conejo", "hamster"};
+    private static final String[] FAMILIES = {"mamifero", "mamifero", "ave", "reptil", "mamifero", "mamifero"};
+    private static final String[] REASONS = {"Control general", "Vacunación", "Desparasitación", "Urgencia", "Cirugía", "Revisión"};
+    private static final String[] PRIORITIES = {"alta", "media", "baja"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 5);
+    private static final int BATCH = 1000;
+
+    private final PetService petService;
+    private final AppointmentService appointmentService;
+    private final AuthService authService;
+    private final Random random;
+
+    ClinicDataGenerator(PetService petService, AppointmentService appointmentService, AuthService authService, long seed) {
+        this.petService = petService;
+        this.appointmentService = appointmentService;
+        this.authService = authService;
+        this.random = new Random(seed);
+    }
+
+    static final class Result {
+        final List<String> veterinarians = new ArrayList<>();
+        final List<String> ownerEmails = new ArrayList<>();
+        int pets;
+        int appointments;
+        long conflicts;
+        int days;
+
+        @Override
+        public String toString() {
+            return String.format("%d veterinarios, %d dueños, %d mascotas, %d citas en %d días (%d rechazadas por solapamiento)",
+                    veterinarians.size(), ownerEmails.size(), pets, appointments, days, conflicts);
+        }
+    }
+
+    Result generate(int vets, int owners, int pets, int appointments, int days, double skew) {
+        Result result = new Result();
+        result.days = days;
+        List<User> vetUsers = new ArrayList<>(vets);
+        for (int i = 0; i < vets; i++) {
+            vetUsers.add(user("Dr. Veterinario " + i, "vet" + i + "@clinica.test", "veterinarian"));
+            result.veterinarians.add("Dr. Veterinario " + i);
+        }
+        List<User> ownerUsers = new ArrayList<>(owners);
+        for (int i = 0; i < owners; i++) {
+            ownerUsers.add(user("Dueño " + i, "dueno" + i + "@clinica.test", "user"));
+            result.ownerEmails.add("dueno" + i + "@clinica.test");
+        }
+        register(vetUsers);
+        register(ownerUsers);
+
+        List<Pet> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < pets; i++) {
+            batch.add(pet(i, ownerUsers.get(random.nextInt(owners))));
+            if (batch.size() == BATCH || i == pets - 1) {
+                result.pets += petService.createAll(batch).size();
+                batch = new ArrayList<>(BATCH);
+            }
+        }
+
+        double[] popularity = zipf(vets, skew);
+        double[] hours = rushHourWeights();
+        long maxAttempts = 4L * appointments;
+        long attempts = 0;
+        while (result.appointments < appointments && attempts < maxAttempts) {
+            int size = (int) Math.min(BATCH, appointments - result.appointments);
+            List<Appointment> appointmentBatch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                appointmentBatch.add(appointment(result.veterinarians.get(pick(popularity)), pick(hours), days, result.pets));
+            }
+            attempts += size;
+            Map<Integer, String> failures = appointmentService.createAll(appointmentBatch);
+            result.appointments += size - failures.size();
+            result.conflicts += failures.size();
+        }
+        return result;
+    }
+
+    // De uno en uno para que los ids de usuario salgan siempre en el mismo orden
+    private void register(List<User> users) {
+        for (User user : users) {
+            authService.register(user).join();
+        }
+    }
+
+    private static User user(String name, String email, String role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword("123456");
+        user.setRole(role);
+        user.setPhone("555-" + Math.abs(email.hashCode() % 10000));
+        return user;
+    }
+
+    private Pet pet(int index, User owner) {
+        int type = random.nextInt(PET_TYPES.length);
+        Pet pet = new Pet();
+        pet.setName("Mascota " + index);
+        pet.setAge(random.nextInt(18));
+        pet.setBreed("Mestizo");
+        pet.setType(PET_TYPES[type]);
+        pet.setFamilyType(FAMILIES[type]);
+        pet.setOwnerName(owner.getName());
+        pet.setOwnerPhone(owner.getPhone());
+        pet.setOwnerEmail(owner.getEmail());
+        return pet;
+    }
+
+    private Appointment appointment(String veterinarian, int slot, int days, int pets) {
+        Appointment a = new Appointment();
+        a.setPetId(String.valueOf(random.nextInt(pets) + 1));
+        a.setVeterinarian(veterinarian);
+        a.setReason(REASONS[random.nextInt(REASONS.length)]);
+        a.setDescription("Cita generada");
+        a.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+        a.setType("consulta");
+        a.setDate(FIRST_DAY.plusDays(random.nextInt(days)).toString());
+        a.setTime(String.format("%02d:%02d", 8 + slot / 4, (slot % 4) * 15));
+        return a;
+    }
+
+    /**
+     * Distribución acumulada de Zipf: el veterinario k recibe un peso 1 / (k + 1)^skew.
+     */
+    private static double[] zipf(int n, double skew) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * 48 huecos de 15 minutos entre las 8:00 y las 20:00; los de 9-11 y 17-19 pesan el triple.
+     */
+    private static double[] rushHourWeights() {
+        double[] cumulative = new double[48];
+        double total = 0;
+        for (int slot = 0; slot < cumulative.length; slot++) {
+            int hour = 8 + slot / 4;
+            total += (hour >= 9 && hour < 11) || (hour >= 17 && hour < 19) ? 3 : 1;
+            cumulative[slot] = total;
+        }
+        for (int slot = 0; slot < cumulative.length; slot++) {
+            cumulative[slot] /= total;
+        }
+        return cumulative;
+    }
+
+    private int pick(double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+}
@@ -0,0 +1,291 @@
+package com.veterinary.benchmark;
+
+import com.veterinary.web.VeterinaryWebApp;
+import com.veterinary.web.service.AppointmentService;
+import com.veterinary.web.service.AuthService;
+import com.veterinary.web.service.PetService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba de carga dentro del mismo proceso. Arranca la aplicación en un puerto libre, la llena con
+ * {@link ClinicDataGenerator} y reproduce con {@code --clients} hilos la mezcla de llamadas que hace
+ * app.js durante {@code --seconds} (tras {@code --warmup} segundos que no se miden). Al final imprime,
+ * por operación, el throughput, los percentiles de latencia y los códigos de estado recibidos.
+ * <p>
+ * La mezcla se indica con pesos relativos, p. ej. {@code --mix getAppointment=30,createAppointment=15}.
+ * El limitador de peticiones se desactiva y PBKDF2 usa {@code --pbkdf2-iterations} (1000 por defecto)
+ * para que generar miles de usuarios no lleve horas. Las operaciones que exigen identidad
+ * ({@code cancelAppointment}) van con el token de un veterinario generado, obtenido con un login
+ * real antes de empezar, igual que hace app.js.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.veterinary.benchmark.ClinicLoadTest \
+ *     -Dbenchmark.args="--vets 2000 --pets 1000000 --appointments 2000000 --clients 64 --seconds 60"
+ * </pre>
+ */
+public final class ClinicLoadTest {
+    private static final String DEFAULT_MIX = "getAppointment=30,getPet=25,listPets=5,listAppointments=5,"
+            + "createAppointment=15,cancelAppointment=10,updatePet=5,login=5";
+
+    private static final Pattern AGE = Pattern.compile("\"age\":(\\d+|null)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+
+    private final Map<String, String> options;
+    private final long seed;
+    private final int clients;
+    private final int seconds;
+    private final int warmup;
+    private final String[] operations;
+    private final double[] cumulativeWeights;
+
+    private URI base;
+    private ClinicDataGenerator.Result data;
+    private String vetAuthorization;
+
+    private ClinicLoadTest(Map<String, String> options) {
+        this.options = options;
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+        this.seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        this.warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        Map<String, Double> mix = new LinkedHashMap<>();
+        for (String entry : options.getOrDefault("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.split("=");
+            mix.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        this.operations = mix.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new double[operations.length];
+        double total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < operations.length; i++) {
+            cumulativeWeights[i] /= total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new ClinicLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        // Sin el reinicio de devtools, que relanzaría este main en otro classloader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String[] arguments = {
+                "--server.port=0",
+                "--veterinary.rate-limit.enabled=false",
+                "--veterinary.auth.pbkdf2-iterations=" + options.getOrDefault("pbkdf2-iterations", "1000"),
+                "--veterinary.execution.mode=" + options.getOrDefault("mode", "platform"),
+        };
+        try (ConfigurableApplicationContext context = SpringApplication.run(VeterinaryWebApp.class, arguments)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            base = URI.create("http://localhost:" + port);
+
+            int vets = Integer.parseInt(options.getOrDefault("vets", "1000"));
+            int pets = Integer.parseInt(options.getOrDefault("pets", "60000"));
+            int owners = Integer.parseInt(options.getOrDefault("owners", String.valueOf(Math.max(1, pets / 3))));
+            int appointments = Integer.parseInt(options.getOrDefault("appointments", "150000"));
+            int days = Integer.parseInt(options.getOrDefault("days", "180"));
+            double skew = Double.parseDouble(options.getOrDefault("skew", "1.0"));
+            long start = System.nanoTime();
+            data = new ClinicDataGenerator(context.getBean(PetService.class), context.getBean(AppointmentService.class),
+                    context.getBean(AuthService.class), seed).generate(vets, owners, pets, appointments, days, skew);
+            System.out.printf("Datos generados en %.1f s: %s%n", (System.nanoTime() - start) / 1e9, data);
+
+            drive();
+        }
+    }
+
+    /**
+     * Inicia sesión como el primer veterinario generado y devuelve la cabecera Authorization.
+     */
+    private String login(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"vet0@clinica.test\",\"password\":\"123456\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher token = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !token.find()) {
+            throw new IllegalStateException("Login del veterinario fallido: " + response.statusCode() + " " + response.body());
+        }
+        return "Bearer " + token.group(1);
+    }
+
+    private void drive() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        vetAuthorization = login(client);
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(clients);
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmup).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        System.out.printf("Carga: %d clientes, %d s de calentamiento y %d s medidos%n", clients, warmup, seconds);
+        for (int i = 0; i < clients; i++) {
+            Worker worker = new Worker(client, new Random(seed + i));
+            workers.add(worker);
+            Thread thread = new Thread(() -> {
+                try {
+                    worker.run(measureFrom, deadline);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        report(workers);
+    }
+
+    private void report(List<Worker> workers) {
+        System.out.printf("%n%-18s %9s %9s  %-58s %s%n", "Operación", "Peticiones", "Pet./s", "Latencia (ms)", "Estados");
+        long total = 0;
+        List<LatencyRecorder> all = new ArrayList<>();
+        for (int op = 0; op < operations.length; op++) {
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            Map<Integer, Long> statuses = new TreeMap<>();
+            for (Worker worker : workers) {
+                recorders.add(worker.latencies[op]);
+                worker.statuses[op].forEach((status, count) -> statuses.merge(status, count, Long::sum));
+            }
+            long[] sorted = LatencyRecorder.merge(recorders);
+            total += sorted.length;
+            all.addAll(recorders);
+            System.out.printf("%-18s %9d %9.1f  %-58s %s%n", operations[op], sorted.length,
+                    sorted.length / (double) seconds, LatencyRecorder.summary(sorted), statuses);
+        }
+        System.out.printf("%-18s %9d %9.1f  %-58s%n", "TOTAL", total, total / (double) seconds,
+                LatencyRecorder.summary(LatencyRecorder.merge(all)));
+    }
+
+    /**
+     * Un cliente: elige operación según la mezcla y registra su latencia y su código de estado.
+     * Los fallos de conexión se anotan con estado 0. {@code updatePet} son dos peticiones (GET y PUT).
+     */
+    private final class Worker {
+        private final HttpClient client;
+        private final Random random;
+        private final LatencyRecorder[] latencies = new LatencyRecorder[operations.length];
+        @SuppressWarnings("unchecked")
+        private final Map<Integer, Long>[] statuses = new Map[operations.length];
+
+        Worker(HttpClient client, Random random) {
+            this.client = client;
+            this.random = random;
+            for (int i = 0; i < operations.length; i++) {
+                latencies[i] = new LatencyRecorder();
+                statuses[i] = new HashMap<>();
+            }
+        }
+
+        void run(long measureFrom, long deadline) {
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                int op = pickOperation();
+                int status;
+                try {
+                    status = "updatePet".equals(operations[op])
+                            ? editPet()
+                            : client.send(request(operations[op]), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    status = 0;
+                }
+                if (now >= measureFrom) {
+                    latencies[op].record(System.nanoTime() - now);
+                    statuses[op].merge(status, 1L, Long::sum);
+                }
+            }
+        }
+
+        private int pickOperation() {
+            double r = random.nextDouble();
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (r < cumulativeWeights[i]) {
+                    return i;
+                }
+            }
+            return cumulativeWeights.length - 1;
+        }
+
+        private HttpRequest request(String operation) {
+            switch (operation) {
+                case "listPets":
+                    return get("/api/pets");
+                case "listAppointments":
+                    return get("/api/appointments");
+                case "getPet":
+                    return get("/api/pets/" + (random.nextInt(data.pets) + 1));
+                case "getAppointment":
+                    return get("/api/appointments/" + (random.nextInt(data.appointments) + 1));
+                case "createAppointment":
+                    return json("POST", "/api/appointments", String.format(
+                            "{\"petId\":\"%d\",\"veterinarian\":\"%s\",\"reason\":\"Control general\",\"priority\":\"media\","
+                                    + "\"type\":\"consulta\",\"date\":\"%s\",\"time\":\"%02d:%02d\"}",
+                            random.nextInt(data.pets) + 1, data.veterinarians.get(random.nextInt(data.veterinarians.size())),
+                            LocalDate.of(2026, 1, 5).plusDays(random.nextInt(data.days)), 8 + random.nextInt(12),
+                            random.nextInt(4) * 15));
+                case "cancelAppointment":
+                    return HttpRequest.newBuilder(base.resolve("/api/appointments/" + (random.nextInt(data.appointments) + 1)))
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", vetAuthorization)
+                            .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"cancelada\"}"))
+                            .build();
+                case "login":
+                    return json("POST", "/api/auth/login", "{\"email\":\""
+                            + data.ownerEmails.get(random.nextInt(data.ownerEmails.size())) + "\",\"password\":\"123456\"}");
+                default:
+                    throw new IllegalArgumentException("Operación desconocida: " + operation);
+            }
+        }
+
+        /**
+         * Como el formulario de edición de app.js: lee la mascota y la guarda entera con otra edad.
+         */
+        private int editPet() throws Exception {
+            String path = "/api/pets/" + (random.nextInt(data.pets) + 1);
+            HttpResponse<String> current = client.send(get(path), HttpResponse.BodyHandlers.ofString());
+            if (current.statusCode() != 200) {
+                return current.statusCode();
+            }
+            String body = AGE.matcher(current.body()).replaceFirst("\"age\":" + random.nextInt(18));
+            return client.send(json("PUT", path, body), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+        }
+
+        private HttpRequest json(String method, String path, String body) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+}
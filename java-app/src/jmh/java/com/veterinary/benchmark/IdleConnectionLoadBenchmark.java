@@ -0,0 +1,199 @@
+package com.veterinary.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga contra un servidor ya arrancado: mantiene {@code --idle} long-polls abiertos en
+ * {@code /api/appointments/changes} (conexiones casi siempre inactivas) y, a la vez, {@code --clients}
+ * hilos piden {@code --path} sin pausa durante {@code --seconds}. Informa del throughput y de los
+ * percentiles de latencia de esas peticiones activas, que es lo que degradaría un long-poll que
+ * ocupase un hilo de Tomcat.
+ * <p>
+ * Se lanza con el perfil benchmark, una vez por cada {@code veterinary.execution.mode} del servidor
+ * (arrancado con {@code --veterinary.rate-limit.enabled=false}):
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.veterinary.benchmark.IdleConnectionLoadBenchmark \
+ *     -Dbenchmark.args="--url http://localhost:8086 --idle 10000 --clients 32 --seconds 30"
+ * </pre>
+ */
+public final class IdleConnectionLoadBenchmark {
+    private final URI base;
+    private final int idle;
+    private final int clients;
+    private final int seconds;
+    private final String path;
+    private final Duration requestTimeout;
+
+    private final AtomicInteger idleOpen = new AtomicInteger();
+    private final LongAdder idleCompleted = new LongAdder();
+    private final LongAdder idleFailed = new LongAdder();
+    private volatile boolean running = true;
+
+    private IdleConnectionLoadBenchmark(Map<String, String> options) {
+        this.base = URI.create(options.getOrDefault("url", "http://localhost:8086"));
+        this.idle = Integer.parseInt(options.getOrDefault("idle", "10000"));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+        this.seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        this.path = options.getOrDefault("path", "/api/pets");
+        this.requestTimeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "5000")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new IdleConnectionLoadBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        ExecutorService idleExecutor = Executors.newFixedThreadPool(4, daemon("idle-client"));
+        HttpClient idleClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(idleExecutor)
+                .build();
+        long version = currentVersion(idleClient);
+        System.out.printf("Abriendo %d long-polls (versión %d)...%n", idle, version);
+        for (int i = 0; i < idle; i++) {
+            poll(idleClient, version);
+            if (i % 500 == 499) {
+                Thread.sleep(50);
+            }
+        }
+        Thread.sleep(2000);
+        System.out.printf("Long-polls abiertos: %d; carga activa: %d clientes durante %d s sobre %s%n",
+                idleOpen.get(), clients, seconds, path);
+
+        Recorder[] recorders = new Recorder[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+        HttpClient activeClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path)).timeout(requestTimeout).GET().build();
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        for (int i = 0; i < clients; i++) {
+            Recorder recorder = new Recorder();
+            recorders[i] = recorder;
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        recorder.send(activeClient, request);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "active-client-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        running = false;
+        report(recorders, elapsed);
+        idleExecutor.shutdownNow();
+    }
+
+    private long currentVersion(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/appointments/changes?timeoutMs=0")).GET().build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        int start = body.indexOf("\"version\":") + "\"version\":".length();
+        int end = start;
+        while (end < body.length() && Character.isDigit(body.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(body.substring(start, end));
+    }
+
+    // Cada long-poll se vuelve a abrir al terminar, de modo que siempre hay `idle` conexiones esperando
+    private void poll(HttpClient client, long since) {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/appointments/changes?since=" + since))
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+        idleOpen.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            idleOpen.decrementAndGet();
+            if (error != null || response.statusCode() != 200) {
+                idleFailed.increment();
+            } else {
+                idleCompleted.increment();
+            }
+            if (running) {
+                poll(client, since);
+            }
+        });
+    }
+
+    private void report(Recorder[] recorders, double elapsed) {
+        long ok = 0;
+        long errors = 0;
+        long timeouts = 0;
+        List<LatencyRecorder> latencies = new ArrayList<>();
+        for (Recorder recorder : recorders) {
+            ok += recorder.ok;
+            errors += recorder.errors;
+            timeouts += recorder.timeouts;
+            latencies.add(recorder.latencies);
+        }
+        System.out.printf("Peticiones OK: %d, errores: %d, timeouts: %d%n", ok, errors, timeouts);
+        System.out.printf("Throughput: %.1f peticiones/s%n", ok / elapsed);
+        System.out.println("Latencia (ms): " + LatencyRecorder.summary(LatencyRecorder.merge(latencies)));
+        System.out.printf("Long-polls abiertos al terminar: %d (completados: %d, fallidos: %d)%n",
+                idleOpen.get(), idleCompleted.sum(), idleFailed.sum());
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Latencias de un hilo de carga; las peticiones que fallan cuentan con el tiempo que tardaron en fallar.
+     */
+    private static final class Recorder {
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private long ok;
+        private long errors;
+        private long timeouts;
+
+        void send(HttpClient client, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    ok++;
+                } else {
+                    errors++;
+                }
+            } catch (HttpTimeoutException e) {
+                timeouts++;
+            } catch (Exception e) {
+                errors++;
+            }
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+}
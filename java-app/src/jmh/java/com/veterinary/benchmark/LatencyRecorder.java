@@ -0,0 +1,58 @@
+package com.veterinary.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Latencias de un hilo de carga. Cada hilo usa su propio recorder sin sincronizar y al terminar
+ * se combinan con {@link #merge} para calcular los percentiles.
+ */
+final class LatencyRecorder {
+    private long[] samples = new long[1 << 14];
+    private int count;
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Latencias ordenadas de todos los recorders.
+     */
+    static long[] merge(Iterable<LatencyRecorder> recorders) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples, 0, merged, offset, recorder.count);
+            offset += recorder.count;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    /**
+     * Percentil {@code p} (0..1] en milisegundos de unas latencias ya ordenadas.
+     */
+    static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    static String summary(long[] sorted) {
+        return String.format("p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.90), percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.veterinary.benchmark;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.model.User;
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.repository.PetRepository;
+import com.veterinary.web.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de los repositorios en memoria que usan los controladores en cada petición. Los ids y
+ * claves se eligen al azar por hilo, así que con {@code -t N} (o {@link BenchmarkRunner}) se mide
+ * también la lectura concurrente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RepositoryLookupBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int size;
+
+    private PetRepository petRepository;
+    private AppointmentRepository appointmentRepository;
+    private UserRepository userRepository;
+    private int owners;
+    private int userCount;
+    private String[] dates;
+
+    @Setup
+    public void setUp() {
+        petRepository = new PetRepository();
+        petRepository.saveAll(BenchmarkData.pets(size, 42));
+        owners = Math.max(1, size / 4);
+        appointmentRepository = new AppointmentRepository();
+        List<Appointment> appointments = BenchmarkData.appointments(size, 42);
+        dates = appointments.stream().map(Appointment::getDate).distinct().toArray(String[]::new);
+        appointmentRepository.saveAll(appointments);
+        userRepository = new UserRepository();
+        BenchmarkData.users(size).forEach(userRepository::save);
+        userCount = userRepository.findAll().size();
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    public Optional<Pet> petFindById(Keys keys) {
+        return petRepository.findById(String.valueOf(keys.next(size) + 1));
+    }
+
+    @Benchmark
+    public List<Pet> petFindByOwnerEmail(Keys keys) {
+        return petRepository.findByOwnerEmail(BenchmarkData.ownerEmail(keys.next(owners)));
+    }
+
+    @Benchmark
+    public List<Appointment> appointmentFindByVeterinarianAndDate(Keys keys) {
+        return appointmentRepository.findByVeterinarianAndDate(
+                BenchmarkData.veterinarian(keys.next(BenchmarkData.VETERINARIANS)), dates[keys.next(dates.length)]);
+    }
+
+    @Benchmark
+    public Optional<User> userFindById(Keys keys) {
+        return userRepository.findById(String.valueOf(keys.next(userCount) + 1));
+    }
+}
@@ -0,0 +1,264 @@
+package com.veterinary.benchmark;
+
+import com.veterinary.web.VeterinaryWebApp;
+import com.veterinary.web.model.User;
+import com.veterinary.web.recording.RecordedRequest;
+import com.veterinary.web.recording.RequestLogFormat;
+import com.veterinary.web.service.AppointmentService;
+import com.veterinary.web.service.AuthService;
+import com.veterinary.web.service.PetService;
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduce una grabación de {@code RequestRecorder} contra una instancia embebida (o contra
+ * {@code --url}) respetando los tiempos entre peticiones, acelerados {@code --speed} veces
+ * ({@code 0} = sin esperas). Al final imprime por ruta el número de peticiones, la latencia y los
+ * estados obtenidos frente a los grabados, de modo que dos versiones se comparan sobre el mismo tráfico.
+ * <p>
+ * La latencia se mide desde el instante en que la petición tocaba según la grabación, no desde que
+ * sale: si el servidor se atrasa, la cola cuenta (sin omisión coordinada). La instancia embebida se
+ * llena antes con {@link ClinicDataGenerator} para que los ids de la grabación existan; las
+ * peticiones cuyo cuerpo no se grabó (CSV, fotos, cuerpos grandes) se omiten.
+ * <p>
+ * La identidad grabada (email seudónimo y rol) se reproduce con un token de sesión emitido para
+ * ella, como las peticiones reales. En la instancia embebida lo emite su propio
+ * {@link SessionTokenService}; contra {@code --url} hace falta {@code --token-secret} con el mismo
+ * {@code AUTH_TOKEN_SECRET} del servidor. Sin él se envían {@code X-User-Email}/{@code X-User-Role},
+ * que solo cuentan si el servidor tiene {@code veterinary.auth.legacy-headers} activo.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.veterinary.benchmark.RequestReplay \
+ *     -Dbenchmark.args="--trace data/recordings/requests-20260601-093000.vrec --speed 2 --clients 64"
+ * </pre>
+ */
+public final class RequestReplay {
+    private final Map<String, String> options;
+    private final double speed;
+    private final int clients;
+    private final Map<String, RouteStats> routes = new TreeMap<>();
+    private final LongAdder skipped = new LongAdder();
+    private final AtomicInteger maxLagMillis = new AtomicInteger();
+    // Un token por identidad grabada (email y rol); solo lo usa el hilo que reparte las peticiones
+    private final Map<String, String> tokens = new HashMap<>();
+    private SessionTokenService sessionTokens;
+
+    private RequestReplay(Map<String, String> options) {
+        this.options = options;
+        this.speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        if (!options.containsKey("trace")) {
+            System.err.println("Falta --trace <fichero de grabación>");
+            System.exit(2);
+        }
+        new RequestReplay(options).run();
+    }
+
+    private void run() throws Exception {
+        List<RecordedRequest> trace = load(options.get("trace"));
+        if (options.containsKey("url")) {
+            if (options.containsKey("token-secret")) {
+                sessionTokens = new SessionTokenService(options.get("token-secret"), TimeUnit.DAYS.toSeconds(1));
+            } else {
+                System.out.println("Sin --token-secret la identidad va en X-User-*: el servidor necesita legacy-headers");
+            }
+            replay(trace, URI.create(options.get("url")));
+            return;
+        }
+        // Sin el reinicio de devtools, que relanzaría este main en otro classloader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String[] arguments = {
+                "--server.port=0",
+                "--veterinary.rate-limit.enabled=false",
+                "--veterinary.recording.enabled=false",
+                "--veterinary.auth.pbkdf2-iterations=" + options.getOrDefault("pbkdf2-iterations", "1000"),
+                "--veterinary.execution.mode=" + options.getOrDefault("mode", "platform"),
+        };
+        try (ConfigurableApplicationContext context = SpringApplication.run(VeterinaryWebApp.class, arguments)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            sessionTokens = context.getBean(SessionTokenService.class);
+            int pets = Integer.parseInt(options.getOrDefault("pets", "60000"));
+            if (pets > 0) {
+                int vets = Integer.parseInt(options.getOrDefault("vets", "1000"));
+                int owners = Integer.parseInt(options.getOrDefault("owners", String.valueOf(Math.max(1, pets / 3))));
+                int appointments = Integer.parseInt(options.getOrDefault("appointments", "150000"));
+                int days = Integer.parseInt(options.getOrDefault("days", "180"));
+                long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+                ClinicDataGenerator.Result data = new ClinicDataGenerator(context.getBean(PetService.class),
+                        context.getBean(AppointmentService.class), context.getBean(AuthService.class), seed)
+                        .generate(vets, owners, pets, appointments, days, 1.0);
+                System.out.println("Datos generados: " + data);
+            }
+            replay(trace, URI.create("http://localhost:" + port));
+        }
+    }
+
+    private static List<RecordedRequest> load(String file) throws IOException {
+        List<RecordedRequest> trace = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(file)), 1 << 16))) {
+            long startedAt = RequestLogFormat.readHeader(in);
+            RecordedRequest request;
+            while ((request = RequestLogFormat.read(in)) != null) {
+                trace.add(request);
+            }
+            System.out.printf("Grabación iniciada el %s: %d peticiones%n", Instant.ofEpochMilli(startedAt), trace.size());
+        }
+        // Se escriben al terminar cada petición; se reproducen por orden de llegada
+        trace.sort(Comparator.comparingLong(RecordedRequest::getOffsetMicros));
+        return trace;
+    }
+
+    private void replay(List<RecordedRequest> trace, URI base) throws InterruptedException {
+        if (trace.isEmpty()) {
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ExecutorService workers = Executors.newFixedThreadPool(clients, task -> {
+            Thread thread = new Thread(task, "replay-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long firstOffset = trace.get(0).getOffsetMicros();
+        long start = System.nanoTime();
+        System.out.printf("Reproduciendo %d peticiones a %s (velocidad %s, %d clientes)%n",
+                trace.size(), base, speed == 0 ? "máxima" : speed + "x", clients);
+        for (RecordedRequest recorded : trace) {
+            if (recorded.getBody() == null && hasBody(recorded.getMethod())) {
+                skipped.increment();
+                continue;
+            }
+            long due = speed == 0 ? System.nanoTime()
+                    : start + (long) (TimeUnit.MICROSECONDS.toNanos(recorded.getOffsetMicros() - firstOffset) / speed);
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            HttpRequest request = toHttp(base, recorded);
+            RouteStats stats = stats(recorded.getRoute());
+            workers.execute(() -> {
+                long sent = System.nanoTime();
+                maxLagMillis.accumulateAndGet((int) TimeUnit.NANOSECONDS.toMillis(sent - due), Math::max);
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                stats.record(System.nanoTime() - due, status, recorded.getStatus());
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+    private static boolean hasBody(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method);
+    }
+
+    private HttpRequest toHttp(URI base, RecordedRequest recorded) {
+        String target = recorded.getQuery() == null ? recorded.getPath() : recorded.getPath() + "?" + recorded.getQuery();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(target))
+                .timeout(Duration.ofSeconds(60))
+                .method(recorded.getMethod(), recorded.getBody() == null || recorded.getBody().length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(recorded.getBody()));
+        if (recorded.getContentType() != null) {
+            builder.header("Content-Type", recorded.getContentType());
+        }
+        if (recorded.getEmail() != null && sessionTokens != null) {
+            builder.header("Authorization", "Bearer " + token(recorded.getEmail(), recorded.getRole()));
+        } else {
+            if (recorded.getEmail() != null) {
+                builder.header("X-User-Email", recorded.getEmail());
+            }
+            if (recorded.getRole() != null) {
+                builder.header("X-User-Role", recorded.getRole());
+            }
+        }
+        return builder.build();
+    }
+
+    private String token(String email, String role) {
+        return tokens.computeIfAbsent(email + "\n" + role, key -> {
+            User user = new User();
+            user.setId(email);
+            user.setEmail(email);
+            user.setRole(role);
+            return sessionTokens.issue(user, sessionTokens.newExpiration());
+        });
+    }
+
+    private synchronized RouteStats stats(String route) {
+        return routes.computeIfAbsent(route, k -> new RouteStats());
+    }
+
+    private void report(double elapsed) {
+        long total = 0;
+        List<LatencyRecorder> all = new ArrayList<>();
+        System.out.printf("%n%-42s %8s  %-58s %s%n", "Ruta", "Pet.", "Latencia (ms)", "Estados (obtenido/grabado)");
+        for (Map.Entry<String, RouteStats> entry : routes.entrySet()) {
+            RouteStats stats = entry.getValue();
+            long[] sorted = LatencyRecorder.merge(Collections.singletonList(stats.latencies));
+            total += sorted.length;
+            all.add(stats.latencies);
+            System.out.printf("%-42s %8d  %-58s %s%n", entry.getKey(), sorted.length,
+                    LatencyRecorder.summary(sorted), stats.statuses);
+        }
+        System.out.printf("%-42s %8d  %-58s%n", "TOTAL", total, LatencyRecorder.summary(LatencyRecorder.merge(all)));
+        System.out.printf("%.1f s, %.1f peticiones/s, %d omitidas sin cuerpo, retraso máximo al enviar %d ms%n",
+                elapsed, total / elapsed, skipped.sum(), maxLagMillis.get());
+    }
+
+    /**
+     * Latencias y estados de una ruta; la comparten los hilos de reproducción.
+     */
+    private static final class RouteStats {
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final Map<String, Long> statuses = new TreeMap<>();
+
+        synchronized void record(long nanos, int status, int recordedStatus) {
+            latencies.record(nanos);
+            statuses.merge(status + "/" + recordedStatus, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.veterinary.services.clinic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registro de citas de solo añadir, indexado por id: la cita {@code id} ocupa la posición
+ * {@code id - 1} de bloques de {@value #CHUNK_SIZE} referencias, sin nodos ni mapas por cita.
+ * <p>
+ * Los ids salen de un contador atómico y nunca se reutilizan. Una cita se publica cuando todas
+ * las de id menor están guardadas, así que {@link #snapshot()} es un prefijo contiguo y estable
+ * que se crea sin copiar. Solo se bloquea al reservar un bloque nuevo.
+ * <p>
+ * Un id reservado y nunca guardado dejaría la publicación parada para siempre. Por eso la cita se
+ * construye antes y el id solo se reserva con su bloque ya creado: entre la reserva y el guardado
+ * no hay nada que pueda fallar.
+ */
+final class AppointmentLog {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+    @SuppressWarnings("unchecked")
+    private volatile AtomicReferenceArray<ClinicAppointment>[] chunks = new AtomicReferenceArray[0];
+    
+    /**
+     * Asigna el siguiente id a la cita, la guarda y no vuelve hasta que está publicada, de modo que
+     * quien la añade la ve enseguida en {@link #get(int)} y {@link #snapshot()}.
+     *
+     * @return el id asignado
+     */
+    int append(ClinicAppointment appointment) {
+        int id;
+        AtomicReferenceArray<ClinicAppointment> chunk;
+        do {
+            id = lastId.get() + 1;
+            // El bloque se crea antes de reservar el id; si otro hilo se adelanta se repite
+            chunk = chunk(id - 1);
+        } while (!lastId.compareAndSet(id - 1, id));
+        appointment.assignId(id);
+        chunk.set((id - 1) & CHUNK_MASK, appointment);
+        
+        // Cada hilo avanza la publicación hasta cubrir su propia cita. Un hueco anterior es de un hilo
+        // que ya reservó y está a punto de guardar, así que solo hay que esperarlo
+        int count;
+        int spins = 0;
+        while ((count = published.get()) < id) {
+            if (find(count) != null) {
+                published.compareAndSet(count, count + 1);
+            } else if (++spins % 64 == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return id;
+    }
+    
+    /**
+     * Cita con el id indicado si ya está publicada.
+     */
+    ClinicAppointment get(int id) {
+        return id < 1 || id > published.get() ? null : find(id - 1);
+    }
+    
+    /**
+     * Número de citas publicadas.
+     */
+    int size() {
+        return published.get();
+    }
+    
+    /**
+     * Vista inmutable de las citas publicadas hasta ahora, ordenadas por id.
+     */
+    List<ClinicAppointment> snapshot() {
+        // El tamaño se lee antes que los bloques: todo lo publicado tiene ya su bloque
+        int size = published.get();
+        AtomicReferenceArray<ClinicAppointment>[] view = chunks;
+        return new Snapshot(view, size);
+    }
+    
+    private ClinicAppointment find(int index) {
+        AtomicReferenceArray<ClinicAppointment>[] current = chunks;
+        int chunk = index >>> CHUNK_BITS;
+        return chunk < current.length ? current[chunk].get(index & CHUNK_MASK) : null;
+    }
+    
+    private AtomicReferenceArray<ClinicAppointment> chunk(int index) {
+        int chunk = index >>> CHUNK_BITS;
+        AtomicReferenceArray<ClinicAppointment>[] current = chunks;
+        if (chunk < current.length) {
+            return current[chunk];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (chunk >= current.length) {
+                AtomicReferenceArray<ClinicAppointment>[] grown = Arrays.copyOf(current, chunk + 1);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+                }
+                chunks = grown;
+                current = grown;
+            }
+            return current[chunk];
+        }
+    }
+    
+    private static final class Snapshot extends AbstractList<ClinicAppointment> implements RandomAccess {
+        private final AtomicReferenceArray<ClinicAppointment>[] chunks;
+        private final int size;
+        
+        Snapshot(AtomicReferenceArray<ClinicAppointment>[] chunks, int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+        
+        @Override
+        public ClinicAppointment get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Índice " + index + " fuera de la vista de " + size + " citas");
+            }
+            return chunks[index >>> CHUNK_BITS].get(index & CHUNK_MASK);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.veterinary.services.clinic;
+
+/**
+ * Cita programada en {@link VeterinarySystem}.
+ * No cambia una vez publicada: se comparte entre hilos y entre las vistas de citas sin copiarla, y
+ * el id y el veterinario se guardan como enteros sin envolver. El id lo pone {@link AppointmentLog}
+ * al guardarla, antes de que ningún otro hilo pueda verla.
+ */
+public final class ClinicAppointment {
+    /**
+     * Estado con el que se crean las citas.
+     */
+    public static final String SCHEDULED = "Programada";
+    
+    private int id;
+    private final String petName;
+    private final String date;
+    private final int veterinarianId;
+    private final String reason;
+    private final String status;
+    
+    /**
+     * Constructor con parámetros. La cita queda sin id hasta que se guarda en el registro.
+     * 
+     * @param petName Nombre de la mascota
+     * @param date Fecha de la cita
+     * @param veterinarianId ID del veterinario
+     * @param reason Motivo de la cita
+     * @param status Estado de la cita
+     */
+    ClinicAppointment(String petName, String date, int veterinarianId, String reason, String status) {
+        this.petName = petName;
+        this.date = date;
+        this.veterinarianId = veterinarianId;
+        this.reason = reason;
+        this.status = status;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    void assignId(int id) {
+        this.id = id;
+    }
+    
+    public String getPetName() {
+        return petName;
+    }
+    
+    public String getDate() {
+        return date;
+    }
+    
+    public int getVeterinarianId() {
+        return veterinarianId;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    @Override
+    public String toString() {
+        return "Cita #" + id + " - " + petName + " (" + date + ", veterinario " + veterinarianId + "): " + reason
+                + " [" + status + "]";
+    }
+}
\ No newline at end of file
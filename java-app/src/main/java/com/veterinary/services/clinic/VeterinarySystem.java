@@ -4,27 +4,38 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.veterinary.models.pet.PetRecord;
 
 /**
  * Sistema central de gestión veterinaria.
  * Implementa el patrón Singleton.
+ * <p>
+ * Es seguro entre hilos sin bloqueos: la instancia se crea en la carga de una clase interna, las
+ * mascotas se guardan en colas concurrentes y las citas en un {@link AppointmentLog}. Las mascotas
+ * se indexan por el nombre del dueño normalizado y las citas por veterinario y por fecha, así que
+ * las búsquedas no recorren todos los registros. Las lecturas ven cada registro completo, pero no
+ * una foto atómica de todo el sistema.
  */
 public class VeterinarySystem {
-    // Instancia única del sistema
-    private static VeterinarySystem instance;
-    
     // Datos del sistema
-    private String clinicName;
-    private String address;
-    private String phone;
-    private String email;
+    private volatile String clinicName;
+    private volatile String address;
+    private volatile String phone;
+    private volatile String email;
     
     // Colecciones de datos
-    private List<PetRecord> petRecords;
-    private Map<Integer, String> veterinarians;
-    private List<Map<String, Object>> appointments;
+    private final Queue<PetRecord> petRecords;
+    private final Map<String, Queue<PetRecord>> petsByOwner;
+    private final AtomicInteger petCount;
+    private final Map<Integer, String> veterinarians;
+    private final AppointmentLog appointments;
+    private final Map<Integer, Queue<ClinicAppointment>> appointmentsByVeterinarian;
+    private final Map<String, Queue<ClinicAppointment>> appointmentsByDate;
     
     /**
      * Constructor privado para evitar instanciación directa.
@@ -36,9 +47,13 @@ public class VeterinarySystem {
         this.email = "john.ceballosbel@campusucc.edu.co";
         
         // Inicialización de colecciones
-        this.petRecords = new ArrayList<>();
-        this.veterinarians = new HashMap<>();
-        this.appointments = new ArrayList<>();
+        this.petRecords = new ConcurrentLinkedQueue<>();
+        this.petsByOwner = new ConcurrentHashMap<>();
+        this.petCount = new AtomicInteger();
+        this.veterinarians = new ConcurrentHashMap<>();
+        this.appointments = new AppointmentLog();
+        this.appointmentsByVeterinarian = new ConcurrentHashMap<>();
+        this.appointmentsByDate = new ConcurrentHashMap<>();
         
         // Añadir algunos veterinarios de ejemplo
         this.veterinarians.put(1, "Dr. Juan Pérez");
@@ -46,25 +61,39 @@ public class VeterinarySystem {
         this.veterinarians.put(3, "Dr. Carlos López");
     }
     
+    /**
+     * Instancia única; la JVM la crea una sola vez al cargar esta clase, en el primer
+     * {@link #getInstance()}, y las llamadas siguientes no sincronizan.
+     */
+    private static final class Holder {
+        private static final VeterinarySystem INSTANCE = new VeterinarySystem();
+    }
+    
     /**
      * Obtiene la instancia única del sistema.
      * 
      * @return Instancia del sistema
      */
-    public static synchronized VeterinarySystem getInstance() {
-        if (instance == null) {
-            instance = new VeterinarySystem();
-        }
-        return instance;
+    public static VeterinarySystem getInstance() {
+        return Holder.INSTANCE;
     }
     
     /**
-     * Registra una mascota en el sistema.
+     * Registra una mascota en el sistema y la añade al índice por dueño.
      * 
      * @param record Registro de la mascota
+     * @throws IllegalArgumentException si el registro es nulo
      */
     public void registerPet(PetRecord record) {
+        if (record == null) {
+            throw new IllegalArgumentException("El registro de la mascota es obligatorio");
+        }
         petRecords.add(record);
+        petCount.incrementAndGet();
+        String ownerName = record.getOwnerName();
+        if (ownerName != null) {
+            petsByOwner.computeIfAbsent(foldCase(ownerName), key -> new ConcurrentLinkedQueue<>()).add(record);
+        }
     }
     
     /**
@@ -77,23 +106,21 @@ public class VeterinarySystem {
     }
     
     /**
-     * Busca registros de mascotas por nombre del dueño.
+     * Busca registros de mascotas por nombre del dueño, sin distinguir mayúsculas.
      * 
      * @param ownerName Nombre del dueño
-     * @return Lista de registros encontrados
+     * @return Lista de registros encontrados, en orden de registro
      */
     public List<PetRecord> findPetsByOwner(String ownerName) {
-        List<PetRecord> result = new ArrayList<>();
-        for (PetRecord record : petRecords) {
-            if (record.getOwnerName().equalsIgnoreCase(ownerName)) {
-                result.add(record);
-            }
+        if (ownerName == null) {
+            return new ArrayList<>();
         }
-        return result;
+        Queue<PetRecord> records = petsByOwner.get(foldCase(ownerName));
+        return records == null ? new ArrayList<>() : new ArrayList<>(records);
     }
     
     /**
-     * Programa una cita.
+     * Programa una cita y la añade a los índices por veterinario y por fecha.
      * 
      * @param petName Nombre de la mascota
      * @param date Fecha de la cita
@@ -102,16 +129,47 @@ public class VeterinarySystem {
      * @return ID de la cita
      */
     public int scheduleAppointment(String petName, String date, int veterinarianId, String reason) {
-        Map<String, Object> appointment = new HashMap<>();
-        appointment.put("id", appointments.size() + 1);
-        appointment.put("pet_name", petName);
-        appointment.put("date", date);
-        appointment.put("veterinarian_id", veterinarianId);
-        appointment.put("reason", reason);
-        appointment.put("status", "Programada");
+        ClinicAppointment appointment = new ClinicAppointment(petName, date, veterinarianId, reason,
+                ClinicAppointment.SCHEDULED);
         
-        appointments.add(appointment);
-        return (int) appointment.get("id");
+        int id = appointments.append(appointment);
+        appointmentsByVeterinarian.computeIfAbsent(veterinarianId, key -> new ConcurrentLinkedQueue<>()).add(appointment);
+        if (date != null) {
+            appointmentsByDate.computeIfAbsent(date, key -> new ConcurrentLinkedQueue<>()).add(appointment);
+        }
+        return id;
+    }
+    
+    /**
+     * Busca una cita por su ID.
+     * 
+     * @param id ID de la cita
+     * @return La cita, o null si no existe
+     */
+    public ClinicAppointment getAppointment(int id) {
+        return appointments.get(id);
+    }
+    
+    /**
+     * Busca las citas de un veterinario.
+     * 
+     * @param veterinarianId ID del veterinario
+     * @return Lista de citas, en orden de programación
+     */
+    public List<ClinicAppointment> findAppointmentsByVeterinarian(int veterinarianId) {
+        Queue<ClinicAppointment> found = appointmentsByVeterinarian.get(veterinarianId);
+        return found == null ? new ArrayList<>() : new ArrayList<>(found);
+    }
+    
+    /**
+     * Busca las citas de una fecha.
+     * 
+     * @param date Fecha de las citas
+     * @return Lista de citas, en orden de programación
+     */
+    public List<ClinicAppointment> findAppointmentsByDate(String date) {
+        Queue<ClinicAppointment> found = date == null ? null : appointmentsByDate.get(date);
+        return found == null ? new ArrayList<>() : new ArrayList<>(found);
     }
     
     /**
@@ -125,7 +183,7 @@ public class VeterinarySystem {
         info.put("address", address);
         info.put("phone", phone);
         info.put("email", email);
-        info.put("pet_count", String.valueOf(petRecords.size()));
+        info.put("pet_count", String.valueOf(petCount.get()));
         info.put("veterinarian_count", String.valueOf(veterinarians.size()));
         info.put("appointment_count", String.valueOf(appointments.size()));
         return info;
@@ -143,10 +201,30 @@ public class VeterinarySystem {
     /**
      * Obtiene la lista de citas.
      * 
-     * @return Lista de citas
+     * @return Vista inmutable de las citas programadas hasta ahora, ordenadas por ID; no se copia
+     *         y no ve las que se programen después
+     */
+    public List<ClinicAppointment> getAppointments() {
+        return appointments.snapshot();
+    }
+    
+    /**
+     * Normaliza un nombre para el índice por dueño con la misma regla que
+     * {@link String#equalsIgnoreCase(String)}: carácter a carácter, mayúscula y luego minúscula.
      */
-    public List<Map<String, Object>> getAppointments() {
-        return new ArrayList<>(appointments);
+    private static String foldCase(String value) {
+        char[] folded = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (f != c) {
+                if (folded == null) {
+                    folded = value.toCharArray();
+                }
+                folded[i] = f;
+            }
+        }
+        return folded == null ? value : new String(folded);
     }
     
     // Getters y setters para datos básicos
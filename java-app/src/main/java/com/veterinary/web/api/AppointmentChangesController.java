@@ -0,0 +1,57 @@
+package com.veterinary.web.api;
+
+import com.veterinary.web.service.AppointmentChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Long-poll sobre los cambios de citas: {@code GET /api/appointments/changes?since=N} responde en
+ * cuanto la versión del repositorio supera N, o al cumplirse el timeout con {@code changed: false}.
+ * La espera es siempre un {@link DeferredResult}, en cualquier modo de ejecución: una conexión
+ * inactiva no debe ocupar un hilo de Tomcat.
+ */
+@RestController
+@RequestMapping("/api/appointments/changes")
+@CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
+public class AppointmentChangesController {
+    private final AppointmentChangeFeed changeFeed;
+    private final long maxTimeoutMillis;
+
+    public AppointmentChangesController(AppointmentChangeFeed changeFeed,
+                                        @Value("${veterinary.execution.long-poll-timeout-ms:25000}") long maxTimeoutMillis) {
+        this.changeFeed = changeFeed;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+    }
+
+    @GetMapping
+    public DeferredResult<ResponseEntity<?>> changes(@RequestParam(defaultValue = "-1") long since,
+                                                     @RequestParam(required = false) Long timeoutMs) {
+        long timeout = timeoutMs == null ? maxTimeoutMillis : Math.max(0, Math.min(timeoutMs, maxTimeoutMillis));
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout);
+        if (timeout == 0) {
+            // Para el contenedor un timeout 0 es "sin límite": se responde con la versión actual
+            long version = changeFeed.version();
+            result.setResult(response(version, version > since));
+            return result;
+        }
+        AppointmentChangeFeed.Subscription subscription = changeFeed.subscribe(since, version -> result.setResult(response(version, true)));
+        result.onTimeout(() -> {
+            subscription.cancel();
+            result.setResult(response(changeFeed.version(), false));
+        });
+        result.onError(error -> subscription.cancel());
+        return result;
+    }
+
+    private static ResponseEntity<?> response(long version, boolean changed) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", version);
+        body.put("changed", changed);
+        return ResponseEntity.ok().header("Cache-Control", "no-store").body(body);
+    }
+}
@@ -1,12 +1,21 @@
 package com.veterinary.web.api;
 
+import com.veterinary.web.cache.IdempotencyStore;
+import com.veterinary.web.cache.JsonFragmentCache;
 import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.AppointmentBatchRequest;
+import com.veterinary.web.model.AppointmentBatchResult;
 import com.veterinary.web.service.AppointmentService;
+import com.veterinary.web.service.BulkImportService;
 import com.veterinary.web.repository.PetRepository;
 import com.veterinary.web.model.Pet;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,36 +26,109 @@ import java.util.Optional;
 public class AppointmentController {
     private final AppointmentService appointmentService;
     private final PetRepository petRepository;
+    private final BulkImportService bulkImportService;
+    private final JsonFragmentCache jsonCache;
+    private final IdempotencyStore idempotencyStore;
+    private final int maxBatchOperations;
 
-    public AppointmentController(AppointmentService appointmentService, PetRepository petRepository) {
+    public AppointmentController(AppointmentService appointmentService, PetRepository petRepository, BulkImportService bulkImportService,
+                                 JsonFragmentCache jsonCache, IdempotencyStore idempotencyStore,
+                                 @Value("${veterinary.batch.max-operations:5000}") int maxBatchOperations) {
         this.appointmentService = appointmentService;
         this.petRepository = petRepository;
+        this.bulkImportService = bulkImportService;
+        this.jsonCache = jsonCache;
+        this.idempotencyStore = idempotencyStore;
+        this.maxBatchOperations = maxBatchOperations;
     }
 
     @GetMapping
-    public List<Appointment> list() { return appointmentService.list(); }
+    public ResponseEntity<?> list(@RequestParam(required = false) String fields,
+                                  @RequestHeader(value = "Accept", required = false) String accept,
+                                  @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        String etag = EntityTags.of(appointmentService.version(), fields, format);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return EntityTags.notModified(etag);
+        }
+        return listResponse(etag, format, appointmentService.list(), fields);
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable String id) {
+    public ResponseEntity<?> get(@PathVariable String id, @RequestParam(required = false) String fields,
+                                 @RequestHeader(value = "Accept", required = false) String accept,
+                                 @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
         Optional<Appointment> a = appointmentService.get(id);
-        return a.<ResponseEntity<?>>map(ResponseEntity::ok)
+        return a.<ResponseEntity<?>>map(appointment -> {
+                    String etag = EntityTags.of(appointment.getVersion(), fields, format);
+                    if (EntityTags.matches(ifNoneMatch, etag)) {
+                        return EntityTags.notModified(etag);
+                    }
+                    ResponseEntity.BodyBuilder ok = EntityTags.ok(etag, format);
+                    if (FieldSelection.isRequested(fields)) {
+                        return ok.body(FieldSelection.apply(appointment, fields));
+                    }
+                    return format != ResponseFormat.JSON
+                            ? ok.body(appointment)
+                            : ok.body(jsonCache.toJson(appointment, appointment.getId(), appointment.getVersion()));
+                })
                 .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Cita no encontrada")));
     }
 
     @GetMapping("/pet/{petId}")
-    public List<Appointment> listByPet(@PathVariable String petId) { return appointmentService.listByPet(petId); }
+    public ResponseEntity<?> listByPet(@PathVariable String petId, @RequestParam(required = false) String fields,
+                                       @RequestHeader(value = "Accept", required = false) String accept,
+                                       @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        String etag = EntityTags.of(appointmentService.version(), fields, format);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return EntityTags.notModified(etag);
+        }
+        return listResponse(etag, format, appointmentService.listByPet(petId), fields);
+    }
 
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody Appointment appointment, @RequestHeader(value = "X-User-Email", required = false) String requesterEmail, @RequestHeader(value = "X-User-Role", required = false) String requesterRole) {
-        try {
-            return ResponseEntity.ok(appointmentService.create(appointment));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    public ResponseEntity<?> create(@RequestBody Appointment appointment,
+                                    @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                    Optional<Requester> requester, HttpServletRequest request) {
+        String scope = "appointments:" + Requester.clientKey(requester, request);
+        return idempotencyStore.execute(scope, idempotencyKey, request, appointment, () -> {
+            try {
+                return ResponseEntity.ok(appointmentService.create(appointment));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importAppointments(InputStream body, @RequestHeader("Content-Type") String contentType,
+                                                Requester requester) throws IOException {
+        boolean isUser = requester.getRole() != null && requester.getRole().equalsIgnoreCase("user");
+        if (isUser) {
+            return ResponseEntity.status(403).body(Map.of("error", "No tienes permiso para importar citas"));
+        }
+        return ResponseEntity.ok(bulkImportService.importAppointments(body, BulkImportService.Format.fromContentType(contentType)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody AppointmentBatchRequest request, Requester requester) {
+        boolean isUser = requester.getRole() != null && requester.getRole().equalsIgnoreCase("user");
+        if (isUser) {
+            return ResponseEntity.status(403).body(Map.of("error", "No tienes permiso para operar citas en lote"));
         }
+        if (request.getOperations() == null || request.getOperations().size() > maxBatchOperations) {
+            return ResponseEntity.badRequest().body(Map.of("error", "El lote debe tener entre 0 y " + maxBatchOperations + " operaciones"));
+        }
+        AppointmentBatchResult result = appointmentService.applyBatch(request.getOperations(), request.isAtomic());
+        return result.isApplied() ? ResponseEntity.ok(result) : ResponseEntity.status(409).body(result);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable String id, @RequestBody Appointment appointment, @RequestHeader(value = "X-User-Email", required = false) String requesterEmail, @RequestHeader(value = "X-User-Role", required = false) String requesterRole) {
+    public ResponseEntity<?> update(@PathVariable String id, @RequestBody Appointment appointment, Requester requester) {
+        String requesterEmail = requester.getEmail();
+        String requesterRole = requester.getRole();
         try {
             Optional<Appointment> existingOpt = appointmentService.get(id);
             if (!existingOpt.isPresent()) {
@@ -83,7 +165,9 @@ public class AppointmentController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@PathVariable String id, @RequestHeader(value = "X-User-Email", required = false) String requesterEmail, @RequestHeader(value = "X-User-Role", required = false) String requesterRole) {
+    public ResponseEntity<?> delete(@PathVariable String id, Requester requester) {
+        String requesterEmail = requester.getEmail();
+        String requesterRole = requester.getRole();
         Optional<Appointment> existingOpt = appointmentService.get(id);
         if (!existingOpt.isPresent()) {
             return ResponseEntity.status(404).body(Map.of("error", "Cita no encontrada"));
@@ -102,4 +186,15 @@ public class AppointmentController {
         appointmentService.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<?> listResponse(String etag, ResponseFormat format, List<Appointment> appointments, String fields) {
+        ResponseEntity.BodyBuilder ok = EntityTags.ok(etag, format);
+        if (FieldSelection.isRequested(fields)) {
+            return ok.body(FieldSelection.apply(appointments, fields));
+        }
+        if (format != ResponseFormat.JSON) {
+            return ok.body(appointments);
+        }
+        return ok.body(jsonCache.toJsonArray(appointments, Appointment::getId, Appointment::getVersion));
+    }
+}
@@ -1,39 +1,109 @@
 package com.veterinary.web.api;
 
+import com.veterinary.web.model.LoginResponse;
 import com.veterinary.web.model.User;
 import com.veterinary.web.service.AuthService;
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
 public class AuthController {
     private final AuthService authService;
+    private final SessionTokenService sessionTokens;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, SessionTokenService sessionTokens) {
         this.authService = authService;
+        this.sessionTokens = sessionTokens;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
         try {
-            User created = authService.register(user);
-            return ResponseEntity.ok(created);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return authService.register(user)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> failure(e, 400));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> req) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> req, HttpServletRequest request) {
+        boolean secure = request.isSecure();
         try {
-            User user = authService.login(req.get("email"), req.get("password"));
-            return ResponseEntity.ok(user);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
+            return authService.login(req.get("email"), req.get("password"))
+                    .<ResponseEntity<?>>thenApply(user -> {
+                        long expiresAt = sessionTokens.newExpiration();
+                        String token = sessionTokens.issue(user, expiresAt);
+                        long maxAge = Math.max(0, expiresAt - System.currentTimeMillis());
+                        return ResponseEntity.ok()
+                                .header(HttpHeaders.SET_COOKIE, sessionCookie(token, Duration.ofMillis(maxAge), secure))
+                                .body(new LoginResponse(user, token, expiresAt));
+                    })
+                    .exceptionally(e -> failure(e, 401));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                    HttpServletRequest request) {
+        String token = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                ? authorization.substring(7).trim() : null;
+        Optional<SessionTokenService.Session> session = sessionTokens.verify(token);
+        if (!session.isPresent()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Sesión inválida o caducada"));
+        }
+        sessionTokens.revoke(session.get());
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, sessionCookie("", Duration.ZERO, request.isSecure()))
+                .build();
+    }
+
+    /**
+     * Copia del token para la página principal, que la usa solo para decidir qué estado incrusta.
+     * La API sigue leyendo únicamente la cabecera Authorization, así que la cookie no autoriza
+     * ninguna petición por sí sola.
+     */
+    private static String sessionCookie(String token, Duration maxAge, boolean secure) {
+        return ResponseCookie.from(SessionTokenService.COOKIE, token)
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build()
+                .toString();
+    }
+
+    private static ResponseEntity<?> failure(Throwable error, int status) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.status(status).body(Map.of("error", cause.getMessage()));
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new CompletionException(cause);
+    }
+
+    private static ResponseEntity<?> busy() {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Demasiados inicios de sesión en curso, reintenta en unos segundos"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.veterinary.web.api;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETags fuertes derivados de los contadores de versión de los repositorios. Permiten
+ * responder 304 a {@code If-None-Match} sin leer ni serializar los datos.
+ */
+final class EntityTags {
+    /**
+     * Los contadores vuelven a 0 en cada arranque: con el instante de arranque delante, un ETag
+     * guardado por el navegador antes de un reinicio no coincide con el mismo número de ahora.
+     */
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private EntityTags() {
+    }
+
+    /**
+     * Cada representación (proyección {@code fields=} y formato) tiene su propio ETag.
+     */
+    static String of(long version, String fields, ResponseFormat format) {
+        StringBuilder tag = new StringBuilder().append('"').append(BOOT_ID).append('-').append(version);
+        if (FieldSelection.isRequested(fields)) {
+            tag.append('-').append(Integer.toHexString(fields.hashCode()));
+        }
+        if (format.tagSuffix() != null) {
+            tag.append('-').append(format.tagSuffix());
+        }
+        return tag.append('"').toString();
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag, ResponseFormat format) {
+        // no-cache: el navegador guarda la respuesta pero la revalida siempre con If-None-Match
+        return ResponseEntity.ok().contentType(format.mediaType()).eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache());
+    }
+
+    static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache()).build();
+    }
+}
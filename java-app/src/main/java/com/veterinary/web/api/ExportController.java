@@ -0,0 +1,53 @@
+package com.veterinary.web.api;
+
+import com.veterinary.web.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{entity:pets|appointments}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity,
+                                                        @RequestParam(defaultValue = "weak") String consistency,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportService.Consistency mode = parseConsistency(consistency);
+        StreamingResponseBody body = "pets".equals(entity)
+                ? out -> exportService.exportPets(out, mode, gzip)
+                : out -> exportService.exportAppointments(out, mode, gzip);
+        String fileName = entity + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    private static ExportService.Consistency parseConsistency(String value) {
+        try {
+            return ExportService.Consistency.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Consistencia no soportada: " + value);
+        }
+    }
+}
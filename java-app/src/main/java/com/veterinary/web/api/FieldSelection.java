@@ -0,0 +1,39 @@
+package com.veterinary.web.api;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.veterinary.web.config.JacksonConfig;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Proyección {@code fields=a,b,c}: Jackson serializa solo esas propiedades (más {@code id})
+ * directamente desde las entidades, sin construir mapas intermedios.
+ */
+final class FieldSelection {
+    private FieldSelection() {
+    }
+
+    static boolean isRequested(String fields) {
+        return fields != null && !fields.isBlank();
+    }
+
+    static Object apply(Object body, String fields) {
+        if (!isRequested(fields)) {
+            return body;
+        }
+        Set<String> names = new HashSet<>();
+        names.add("id");
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                names.add(field.trim());
+            }
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(JacksonConfig.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        return value;
+    }
+}
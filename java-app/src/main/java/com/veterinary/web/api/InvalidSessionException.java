@@ -0,0 +1,10 @@
+package com.veterinary.web.api;
+
+/**
+ * Token de sesión ausente (cuando es obligatorio), mal formado, caducado o revocado.
+ */
+public class InvalidSessionException extends RuntimeException {
+    public InvalidSessionException(String message) {
+        super(message);
+    }
+}
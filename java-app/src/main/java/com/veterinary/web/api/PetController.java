@@ -1,10 +1,17 @@
 package com.veterinary.web.api;
 
+import com.veterinary.web.cache.IdempotencyStore;
+import com.veterinary.web.cache.JsonFragmentCache;
 import com.veterinary.web.model.Pet;
+import com.veterinary.web.service.BulkImportService;
+import com.veterinary.web.service.PetPhotoService;
 import com.veterinary.web.service.PetService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -14,28 +21,84 @@ import java.util.Optional;
 @CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
 public class PetController {
     private final PetService petService;
+    private final BulkImportService bulkImportService;
+    private final JsonFragmentCache jsonCache;
+    private final IdempotencyStore idempotencyStore;
+    private final PetPhotoService photoService;
 
-    public PetController(PetService petService) {
+    public PetController(PetService petService, BulkImportService bulkImportService, JsonFragmentCache jsonCache,
+                         IdempotencyStore idempotencyStore, PetPhotoService photoService) {
         this.petService = petService;
+        this.bulkImportService = bulkImportService;
+        this.jsonCache = jsonCache;
+        this.idempotencyStore = idempotencyStore;
+        this.photoService = photoService;
     }
 
     @GetMapping
-    public List<Pet> list() { return petService.list(); }
+    public ResponseEntity<?> list(@RequestParam(required = false) String fields,
+                                  @RequestHeader(value = "Accept", required = false) String accept,
+                                  @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
+        String etag = EntityTags.of(petService.version(), fields, format);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return EntityTags.notModified(etag);
+        }
+        List<Pet> pets = petService.list();
+        ResponseEntity.BodyBuilder ok = EntityTags.ok(etag, format);
+        if (FieldSelection.isRequested(fields)) {
+            return ok.body(FieldSelection.apply(pets, fields));
+        }
+        if (format != ResponseFormat.JSON) {
+            return ok.body(pets);
+        }
+        return ok.body(jsonCache.toJsonArray(pets, Pet::getId, Pet::getVersion));
+    }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@PathVariable String id) {
+    public ResponseEntity<?> get(@PathVariable String id, @RequestParam(required = false) String fields,
+                                 @RequestHeader(value = "Accept", required = false) String accept,
+                                 @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ResponseFormat format = ResponseFormat.fromAccept(accept);
         Optional<Pet> pet = petService.get(id);
-        return pet.<ResponseEntity<?>>map(ResponseEntity::ok)
+        return pet.<ResponseEntity<?>>map(p -> {
+                    String etag = EntityTags.of(p.getVersion(), fields, format);
+                    if (EntityTags.matches(ifNoneMatch, etag)) {
+                        return EntityTags.notModified(etag);
+                    }
+                    ResponseEntity.BodyBuilder ok = EntityTags.ok(etag, format);
+                    if (FieldSelection.isRequested(fields)) {
+                        return ok.body(FieldSelection.apply(p, fields));
+                    }
+                    return format != ResponseFormat.JSON
+                            ? ok.body(p)
+                            : ok.body(jsonCache.toJson(p, p.getId(), p.getVersion()));
+                })
                 .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Mascota no encontrada")));
     }
 
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody Pet pet) {
-        try {
-            return ResponseEntity.ok(petService.create(pet));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    public ResponseEntity<?> create(@RequestBody Pet pet,
+                                    @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                    Optional<Requester> requester, HttpServletRequest request) {
+        String scope = "pets:" + Requester.clientKey(requester, request);
+        return idempotencyStore.execute(scope, idempotencyKey, request, pet, () -> {
+            try {
+                return ResponseEntity.ok(petService.create(pet));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importPets(InputStream body, @RequestHeader("Content-Type") String contentType,
+                                        Requester requester) throws IOException {
+        boolean isUser = requester.getRole() != null && requester.getRole().equalsIgnoreCase("user");
+        if (isUser) {
+            return ResponseEntity.status(403).body(Map.of("error", "No tienes permiso para importar mascotas"));
         }
+        return ResponseEntity.ok(bulkImportService.importPets(body, BulkImportService.Format.fromContentType(contentType)));
     }
 
     @PutMapping("/{id}")
@@ -50,6 +113,7 @@ public class PetController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> delete(@PathVariable String id) {
         petService.delete(id);
+        photoService.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
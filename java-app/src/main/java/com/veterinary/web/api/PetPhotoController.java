@@ -0,0 +1,88 @@
+package com.veterinary.web.api;
+
+import com.veterinary.web.service.PetPhotoService;
+import com.veterinary.web.service.PetService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/pets/{id}/photo")
+@CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
+public class PetPhotoController {
+    private final PetService petService;
+    private final PetPhotoService photoService;
+
+    public PetPhotoController(PetService petService, PetPhotoService photoService) {
+        this.petService = petService;
+        this.photoService = photoService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> upload(@PathVariable String id, @RequestParam("file") MultipartFile file) throws IOException {
+        if (!petService.get(id).isPresent()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Mascota no encontrada"));
+        }
+        return ResponseEntity.ok(photoService.store(id, file));
+    }
+
+    /**
+     * Devuelve null cuando el cuerpo ya se ha escrito directamente en la respuesta.
+     */
+    @GetMapping
+    public ResponseEntity<?> photo(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<PetPhotoService.Photo> photo = photoService.photo(id);
+        if (!photo.isPresent()) {
+            return ResponseEntity.status(404).body(Map.of("error", "La mascota no tiene foto"));
+        }
+        FileResponses.send(request, response, photo.get().getPath(), photo.get().getContentType(),
+                photo.get().getSize(), etag(photo.get(), null));
+        return null;
+    }
+
+    @GetMapping("/thumbnail")
+    public ResponseEntity<?> thumbnail(@PathVariable String id, @RequestParam(defaultValue = "128") int size,
+                                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<PetPhotoService.Photo> thumbnail = photoService.thumbnail(id, size);
+        if (!thumbnail.isPresent()) {
+            return ResponseEntity.status(404).body(Map.of("error", "La mascota no tiene foto"));
+        }
+        FileResponses.send(request, response, thumbnail.get().getPath(), thumbnail.get().getContentType(),
+                thumbnail.get().getSize(), etag(thumbnail.get(), size));
+        return null;
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> delete(@PathVariable String id) {
+        if (!petService.get(id).isPresent()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Mascota no encontrada"));
+        }
+        photoService.delete(id);
+        petService.updatePhoto(id, null);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<?> tooLarge(MaxUploadSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("error", "La foto supera el tamaño máximo permitido"));
+    }
+
+    // El ETag cambia con cada subida, por lo que los navegadores revalidan sin volver a descargar
+    private static String etag(PetPhotoService.Photo photo, Integer size) {
+        return "\"" + photo.getStamp() + (size != null ? "-" + size : "") + "\"";
+    }
+}
@@ -0,0 +1,29 @@
+package com.veterinary.web.api;
+
+import com.veterinary.web.config.RateLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Contadores del limitador por ruta, para ajustar los presupuestos de {@code veterinary.rate-limit}.
+ */
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+@CrossOrigin(origins = {"http://localhost:5500", "http://localhost:8000", "http://localhost:8001"}, allowCredentials = "false")
+public class RateLimitController {
+    private final RateLimiter rateLimiter;
+
+    public RateLimitController(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> stats(Requester requester) {
+        if (!"veterinarian".equalsIgnoreCase(requester.getRole())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Acceso denegado"));
+        }
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+}
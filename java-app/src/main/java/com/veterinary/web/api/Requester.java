@@ -0,0 +1,39 @@
+package com.veterinary.web.api;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Identidad de quien hace la petición, resuelta por {@link RequesterArgumentResolver} a partir
+ * del token de sesión o, si están habilitadas, de las cabeceras {@code X-User-*}.
+ */
+public final class Requester {
+    private final String email;
+    private final String role;
+    private final boolean authenticated;
+
+    Requester(String email, String role, boolean authenticated) {
+        this.email = email;
+        this.role = role;
+        this.authenticated = authenticated;
+    }
+
+    public String getEmail() { return email; }
+    public String getRole() { return role; }
+
+    /**
+     * true si la identidad procede de un token firmado y no de cabeceras declaradas por el cliente.
+     */
+    public boolean isAuthenticated() { return authenticated; }
+
+    /**
+     * Clave con la que se separan los datos de cada cliente: su email si se conoce y, si no, la IP.
+     */
+    static String clientKey(Optional<Requester> requester, HttpServletRequest request) {
+        return requester.map(Requester::getEmail)
+                .filter(email -> !email.isBlank())
+                .map(email -> "email:" + email.trim().toLowerCase(Locale.ROOT))
+                .orElseGet(() -> "ip:" + request.getRemoteAddr());
+    }
+}
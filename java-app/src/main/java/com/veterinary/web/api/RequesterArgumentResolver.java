@@ -0,0 +1,92 @@
+package com.veterinary.web.api;
+
+import com.veterinary.web.metrics.RequestTiming;
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Resuelve los parámetros {@link Requester} de los controladores. Con {@code Authorization: Bearer}
+ * la identidad sale del token (solo se verifica la firma, sin consultar repositorios). Sin token se
+ * usan las cabeceras {@code X-User-Email}/{@code X-User-Role} solo si {@code legacy-headers} está
+ * activo (desactivado por defecto), para clientes antiguos; si no, la petición se rechaza.
+ * Los parámetros {@code Optional<Requester>} quedan vacíos en lugar de rechazar una petición anónima.
+ */
+@Component
+public class RequesterArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokens;
+    private final boolean legacyHeaders;
+
+    public RequesterArgumentResolver(SessionTokenService sessionTokens,
+                                     @Value("${veterinary.auth.legacy-headers:false}") boolean legacyHeaders) {
+        this.sessionTokens = sessionTokens;
+        this.legacyHeaders = legacyHeaders;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.nestedIfOptional().getNestedParameterType() == Requester.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                     NativeWebRequest request, WebDataBinderFactory binderFactory) {
+        long start = System.nanoTime();
+        try {
+            if (parameter.getParameterType() == Optional.class) {
+                return resolveOptional(request);
+            }
+            return resolve(request);
+        } finally {
+            RequestTiming.addAuth(System.nanoTime() - start);
+        }
+    }
+
+    private Requester resolve(NativeWebRequest request) {
+        Requester fromToken = fromToken(request);
+        if (fromToken != null) {
+            return fromToken;
+        }
+        if (!legacyHeaders) {
+            throw new InvalidSessionException("Se requiere iniciar sesión");
+        }
+        return new Requester(request.getHeader("X-User-Email"), request.getHeader("X-User-Role"), false);
+    }
+
+    private Optional<Requester> resolveOptional(NativeWebRequest request) {
+        Requester fromToken = fromToken(request);
+        if (fromToken != null) {
+            return Optional.of(fromToken);
+        }
+        String email = request.getHeader("X-User-Email");
+        if (!legacyHeaders || email == null || email.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Requester(email, request.getHeader("X-User-Role"), false));
+    }
+
+    /**
+     * Identidad del token {@code Bearer}, o null si la petición no lo trae. Un token inválido se rechaza.
+     */
+    private Requester fromToken(NativeWebRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        Optional<SessionTokenService.Session> session = sessionTokens.verify(authorization.substring(BEARER.length()).trim());
+        if (!session.isPresent()) {
+            throw new InvalidSessionException("Sesión inválida o caducada");
+        }
+        return new Requester(session.get().getEmail(), session.get().getRole(), true);
+    }
+}
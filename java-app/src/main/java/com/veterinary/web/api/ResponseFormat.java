@@ -0,0 +1,60 @@
+package com.veterinary.web.api;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Formato de respuesta negociado a partir de {@code Accept}. JSON es el predeterminado y el
+ * único que se sirve desde la caché de fragmentos; Smile y CBOR se serializan en cada petición.
+ */
+enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile"),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor");
+
+    private final MediaType mediaType;
+    private final String tagSuffix;
+
+    ResponseFormat(MediaType mediaType, String tagSuffix) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Sufijo del ETag, para que cada formato tenga su propia entrada en las cachés HTTP.
+     */
+    String tagSuffix() {
+        return tagSuffix;
+    }
+
+    static ResponseFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            // Los comodines (*/*, application/*) eligen JSON por ser el primero
+            for (ResponseFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,15 @@
+package com.veterinary.web.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class SessionExceptionHandler {
+    @ExceptionHandler(InvalidSessionException.class)
+    public ResponseEntity<?> unauthorized(InvalidSessionException e) {
+        return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,184 @@
+package com.veterinary.web.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas ya emitidas para cada {@code Idempotency-Key}, de modo que los reintentos de un
+ * POST devuelvan el resultado original sin volver a ejecutarlo. Un reintento que llega mientras
+ * la petición original sigue en curso espera a su resultado como mucho {@code wait-ms}; después
+ * recibe 409 con {@code Retry-After}.
+ * <p>
+ * Las claves se separan por cliente (el scope que pasa el controlador lo incluye) y cada entrada
+ * guarda una huella SHA-256 del método, la ruta y el cuerpo: si la misma clave llega con otra
+ * petición se responde 422 en lugar de devolver la respuesta guardada.
+ * <p>
+ * Las entradas caducan tras {@code ttl-seconds} y el total está acotado por {@code max-entries};
+ * como todas tienen la misma duración, se expulsan en orden de llegada. Las respuestas 5xx no se
+ * guardan para que el cliente pueda reintentar.
+ */
+@Component
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitNanos;
+    private final ObjectMapper objectMapper;
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${veterinary.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${veterinary.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${veterinary.idempotency.wait-ms:10000}") long waitMillis) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+    }
+
+    /**
+     * Ejecuta {@code action} una sola vez por (scope, key). Sin clave se ejecuta siempre.
+     *
+     * @param scope recurso y cliente que hace la petición
+     * @param body  cuerpo ya leído; la huella se calcula antes de ejecutar {@code action}, que puede modificarlo
+     */
+    public ResponseEntity<?> execute(String scope, String key, HttpServletRequest request, Object body,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = scope + '\u0000' + key;
+        byte[] fingerprint = fingerprint(request, body);
+        while (true) {
+            long now = System.nanoTime();
+            Entry existing = entries.get(id);
+            if (existing != null) {
+                if (!existing.isExpired(now, ttlNanos)) {
+                    if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                        return ResponseEntity.status(422).body(Map.of("error",
+                                "La clave de idempotencia ya se usó con una petición distinta"));
+                    }
+                    return replay(existing);
+                }
+                entries.remove(id, existing);
+                continue;
+            }
+            Entry entry = new Entry(id, fingerprint, now);
+            if (entries.putIfAbsent(id, entry) == null) {
+                insertionOrder.add(entry);
+                evict(now);
+                return run(entry, action);
+            }
+        }
+    }
+
+    public long getReplays() { return replays.sum(); }
+    public int getEntryCount() { return entries.size(); }
+
+    private ResponseEntity<?> run(Entry entry, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            discard(entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            discard(entry);
+        }
+        entry.response.complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // La petición original falló y su entrada ya se retiró: el cliente puede reintentar
+            return ResponseEntity.status(409).body(Map.of("error", "La petición original con esta clave de idempotencia falló, reintenta"));
+        } catch (TimeoutException e) {
+            return stillRunning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stillRunning();
+        }
+        replays.increment();
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private static ResponseEntity<?> stillRunning() {
+        return ResponseEntity.status(409).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "La petición original con esta clave de idempotencia sigue en curso, reintenta"));
+    }
+
+    private byte[] fingerprint(HttpServletRequest request, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '\n').getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(body));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la petición", e);
+        }
+    }
+
+    private void discard(Entry entry) {
+        entries.remove(entry.id, entry);
+        insertionOrder.remove(entry);
+    }
+
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (entries.size() > maxEntries || oldest.isExpired(now, ttlNanos))) {
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest.id, oldest);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final byte[] fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        Entry(String id, byte[] fingerprint, long createdAt) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - createdAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.veterinary.web.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché de la representación JSON de cada entidad, indexada por (tipo, id) y validada
+ * con la versión que el repositorio asigna en cada guardado. Las respuestas de listas se arman concatenando fragmentos.
+ * Está acotada por el total de bytes almacenados; al superarlo se expulsan las entradas
+ * más antiguas.
+ */
+@Component
+public class JsonFragmentCache {
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Key, Fragment> fragments = new ConcurrentHashMap<>();
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public JsonFragmentCache(ObjectMapper objectMapper, @Value("${veterinary.json-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    public byte[] toJson(Object entity, String id, long version) {
+        Key key = new Key(entity.getClass(), id);
+        Fragment cached = fragments.get(key);
+        if (cached != null && cached.version == version) {
+            hits.increment();
+            return cached.json;
+        }
+        misses.increment();
+        byte[] json = serialize(entity);
+        store(key, new Fragment(version, json));
+        return json;
+    }
+
+    public <T> byte[] toJsonArray(Collection<T> entities, Function<T, String> id, ToLongFunction<T> version) {
+        byte[][] parts = new byte[entities.size()][];
+        int length = 2 + Math.max(0, parts.length - 1);
+        int i = 0;
+        for (T entity : entities) {
+            parts[i] = toJson(entity, id.apply(entity), version.applyAsLong(entity));
+            length += parts[i++].length;
+        }
+        byte[] out = new byte[length];
+        int position = 0;
+        out[position++] = '[';
+        for (int j = 0; j < parts.length; j++) {
+            if (j > 0) {
+                out[position++] = ',';
+            }
+            System.arraycopy(parts[j], 0, out, position, parts[j].length);
+            position += parts[j].length;
+        }
+        out[position] = ']';
+        return out;
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getTotalBytes() { return totalBytes.get(); }
+    public int getEntryCount() { return fragments.size(); }
+
+    private byte[] serialize(Object entity) {
+        ObjectWriter writer = writers.computeIfAbsent(entity.getClass(), objectMapper::writerFor);
+        try {
+            return writer.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void store(Key key, Fragment fragment) {
+        if (fragment.json.length > maxBytes) {
+            return;
+        }
+        Fragment previous = fragments.put(key, fragment);
+        if (previous == null) {
+            insertionOrder.add(key);
+            totalBytes.addAndGet(fragment.json.length);
+        } else {
+            totalBytes.addAndGet(fragment.json.length - previous.json.length);
+        }
+        while (totalBytes.get() > maxBytes) {
+            Key oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            Fragment evicted = fragments.remove(oldest);
+            if (evicted != null) {
+                totalBytes.addAndGet(-evicted.json.length);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> type;
+        private final String id;
+
+        Key(Class<?> type, String id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return type == other.type && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+    }
+
+    private static final class Fragment {
+        private final long version;
+        private final byte[] json;
+
+        Fragment(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.veterinary.web.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de ejecución de {@code veterinary.execution.mode}. En {@code virtual} el executor de
+ * Tomcat y el de las respuestas asíncronas de Spring MVC pasan a crear un hilo virtual por
+ * tarea. El executor se obtiene por reflexión para que la aplicación siga compilando y
+ * arrancando con Java 11.
+ */
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    private final ExecutorService virtualExecutor;
+
+    public ExecutionConfig(@Value("${veterinary.execution.mode:platform}") String mode) {
+        ExecutionMode requested = ExecutionMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        ExecutorService executor = requested == ExecutionMode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        if (requested == ExecutionMode.VIRTUAL && executor == null) {
+            log.warn("Hilos virtuales no disponibles en Java {}; se usa el modo platform", Runtime.version().feature());
+            requested = ExecutionMode.PLATFORM;
+        }
+        this.virtualExecutor = executor;
+        log.info("Modo de ejecución de peticiones: {}", requested);
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> {
+            if (virtualExecutor != null) {
+                protocolHandler.setExecutor(virtualExecutor);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (virtualExecutor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(virtualExecutor));
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.veterinary.web.config;
+
+/**
+ * Con qué hilos atiende Tomcat las peticiones. El long-poll de cambios usa siempre
+ * {@code DeferredResult}, así que no depende del modo.
+ * <ul>
+ *     <li>{@code PLATFORM}: pool de hilos de Tomcat.</li>
+ *     <li>{@code VIRTUAL}: Tomcat y las respuestas asíncronas usan un hilo virtual por tarea
+ *     (JDK 21+); en JDK anteriores se usa {@code PLATFORM}.</li>
+ * </ul>
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
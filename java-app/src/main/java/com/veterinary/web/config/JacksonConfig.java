@@ -0,0 +1,55 @@
+package com.veterinary.web.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuración de Jackson. Las entidades expuestas por la API admiten un filtro de
+ * propiedades ({@code fields=}) que por defecto serializa todo. La versión interna que
+ * asigna el repositorio se publica como ETag, no en el cuerpo.
+ * <p>
+ * Además de JSON, la API negocia Smile ({@code application/x-jackson-smile}) y CBOR
+ * ({@code application/cbor}) para clientes que descargan listados grandes. Sus
+ * ObjectMapper parten del builder de Spring Boot, así que comparten mixins y filtros.
+ */
+@Configuration
+public class JacksonConfig {
+    public static final String FIELDS_FILTER = "fields";
+
+    @JsonFilter(FIELDS_FILTER)
+    @JsonIgnoreProperties(value = "version")
+    interface FieldsFilterMixin {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(Pet.class, FieldsFilterMixin.class)
+                .mixIn(Appointment.class, FieldsFilterMixin.class)
+                .filters(new SimpleFilterProvider()
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                        .setFailOnUnknownId(false));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,18 @@
+package com.veterinary.web.config;
+
+import com.veterinary.web.metrics.JfrResponseValve;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra en Tomcat la válvula que emite los eventos JFR de respuesta.
+ */
+@Configuration
+public class JfrConfig {
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> jfrResponseValve() {
+        return factory -> factory.addContextValves(new JfrResponseValve());
+    }
+}
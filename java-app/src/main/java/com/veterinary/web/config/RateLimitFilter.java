@@ -0,0 +1,82 @@
+package com.veterinary.web.config;
+
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita las peticiones a {@code /api/**} por cliente con {@link RateLimiter}. El cliente es el
+ * usuario del token de sesión si es válido, si no la cabecera {@code X-User-Email} (solo con
+ * {@code veterinary.auth.legacy-headers}, porque cualquiera puede cambiarla en cada petición) y, en
+ * último caso, la IP. Detrás de un proxy la IP es la del cliente gracias a
+ * {@code server.forward-headers-strategy}. Al agotar el presupuesto se responde 429 con
+ * {@code Retry-After} sin llegar a los controladores.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+    private static final byte[] TOO_MANY = "{\"error\":\"Demasiadas peticiones, reintenta más tarde\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+    private final SessionTokenService sessionTokens;
+    private final boolean legacyHeaders;
+
+    public RateLimitFilter(RateLimiter rateLimiter, SessionTokenService sessionTokens,
+                           @Value("${veterinary.auth.legacy-headers:false}") boolean legacyHeaders) {
+        this.rateLimiter = rateLimiter;
+        this.sessionTokens = sessionTokens;
+        this.legacyHeaders = legacyHeaders;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled()
+                || !request.getRequestURI().startsWith("/api/")
+                || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquire(request.getMethod(), request.getRequestURI(), client(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TOO_MANY.length);
+        response.getOutputStream().write(TOO_MANY);
+    }
+
+    private String client(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            Optional<SessionTokenService.Session> session = sessionTokens.verify(authorization.substring(BEARER.length()).trim());
+            if (session.isPresent()) {
+                return "user:" + session.get().getUserId() + ":" + session.get().getEmail();
+            }
+        }
+        String email = legacyHeaders ? request.getHeader("X-User-Email") : null;
+        if (email != null && !email.isBlank()) {
+            return "email:" + email.trim().toLowerCase(Locale.ROOT);
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
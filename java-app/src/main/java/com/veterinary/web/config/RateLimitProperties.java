@@ -0,0 +1,50 @@
+package com.veterinary.web.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Presupuestos de {@code veterinary.rate-limit}: uno por defecto y otros por ruta. Cada
+ * presupuesto admite {@code rate} peticiones por segundo sostenidas y ráfagas de hasta
+ * {@code burst} peticiones seguidas. La primera ruta que coincide es la que se aplica.
+ */
+@Component
+@ConfigurationProperties(prefix = "veterinary.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int maxKeys = 10000;
+    private Budget defaults = new Budget();
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxKeys() { return maxKeys; }
+    public void setMaxKeys(int maxKeys) { this.maxKeys = maxKeys; }
+    public Budget getDefaults() { return defaults; }
+    public void setDefaults(Budget defaults) { this.defaults = defaults; }
+    public List<Route> getRoutes() { return routes; }
+    public void setRoutes(List<Route> routes) { this.routes = routes; }
+
+    public static class Budget {
+        private double rate = 20;
+        private int burst = 40;
+
+        public double getRate() { return rate; }
+        public void setRate(double rate) { this.rate = rate; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+    }
+
+    public static class Route extends Budget {
+        private String method; // null = cualquier método
+        private String path;   // patrón Ant, p. ej. /api/appointments/**
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+    }
+}
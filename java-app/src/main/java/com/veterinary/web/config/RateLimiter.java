@@ -0,0 +1,173 @@
+package com.veterinary.web.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket por (ruta, cliente) implementado como GCRA: cada cubo es un único
+ * {@link AtomicLong} con el instante teórico en que volvería a estar lleno, y consumir una
+ * petición es un compareAndSet sin bloqueos.
+ * <p>
+ * La tabla de cubos está acotada por {@code max-keys}. Al llenarse se retiran primero los cubos
+ * ya llenos (su estado es el mismo que el de un cubo nuevo, así que no se pierde nada) y, si aun
+ * así no hay sitio, una décima parte de la tabla.
+ */
+@Component
+public class RateLimiter {
+    private static final String DEFAULT_RULE = "default";
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Rule defaultRule;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder evictions = new LongAdder();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxKeys = Math.max(1, properties.getMaxKeys());
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            String method = route.getMethod() == null || route.getMethod().isBlank() ? null : route.getMethod().toUpperCase();
+            String name = (method == null ? "" : method + " ") + route.getPath();
+            rules.add(new Rule(rules.size(), name, method, route.getPath(), route));
+        }
+        this.defaultRule = new Rule(rules.size(), DEFAULT_RULE, null, null, properties.getDefaults());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consume una petición del cubo de {@code client} para la ruta. Devuelve 0 si se admite o
+     * los nanosegundos que faltan para que vuelva a haber saldo.
+     */
+    public long tryAcquire(String method, String path, String client) {
+        Rule rule = resolve(method, path);
+        long now = System.nanoTime();
+        String key = rule.index + "\u0000" + client;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long full = bucket.get();
+            long base = Math.max(full, now);
+            long allowAt = base - rule.toleranceNanos;
+            if (now < allowAt) {
+                rule.rejected.increment();
+                return allowAt - now;
+            }
+            if (bucket.compareAndSet(full, base + rule.intervalNanos)) {
+                rule.allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (Rule rule : rules) {
+            routes.add(rule.stats());
+        }
+        routes.add(defaultRule.stats());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("keys", buckets.size());
+        stats.put("maxKeys", maxKeys);
+        stats.put("evictions", evictions.sum());
+        stats.put("routes", Collections.unmodifiableList(routes));
+        return stats;
+    }
+
+    private Rule resolve(String method, String path) {
+        for (Rule rule : rules) {
+            if ((rule.method == null || rule.method.equals(method)) && matcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private void evict(long now) {
+        // Un solo hilo barre la tabla; el resto sigue adelante aunque se pase un poco del límite
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long removed = 0;
+            Iterator<AtomicLong> idle = buckets.values().iterator();
+            while (idle.hasNext()) {
+                if (idle.next().get() <= now) {
+                    idle.remove();
+                    removed++;
+                }
+            }
+            int target = maxKeys - maxKeys / 10;
+            Iterator<AtomicLong> any = buckets.values().iterator();
+            while (buckets.size() >= target && any.hasNext()) {
+                any.next();
+                any.remove();
+                removed++;
+            }
+            evictions.add(removed);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Rule {
+        private final int index;
+        private final String name;
+        private final String method;
+        private final String pattern;
+        private final double rate;
+        private final int burst;
+        // Tiempo entre peticiones sostenidas y holgura que permite adelantar la ráfaga
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        Rule(int index, String name, String method, String pattern, RateLimitProperties.Budget budget) {
+            if (budget.getRate() <= 0 || budget.getBurst() < 1) {
+                throw new IllegalArgumentException("Presupuesto de rate-limit no válido para " + name);
+            }
+            this.index = index;
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.rate = budget.getRate();
+            this.burst = budget.getBurst();
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+            this.toleranceNanos = intervalNanos * (burst - 1);
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("route", name);
+            stats.put("rate", rate);
+            stats.put("burst", burst);
+            stats.put("allowed", allowed.sum());
+            stats.put("rejected", rejected.sum());
+            return stats;
+        }
+    }
+}
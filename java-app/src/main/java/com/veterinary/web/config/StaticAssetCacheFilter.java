@@ -0,0 +1,51 @@
+package com.veterinary.web.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Cabeceras de caché para los recursos estáticos con huella de contenido en el nombre
+ * ({@code app-<md5>.js}). Su contenido no cambia nunca, así que el navegador los guarda un
+ * año sin revalidar. El resto de recursos conserva el comportamiento por defecto.
+ */
+@Component
+public class StaticAssetCacheFilter extends OncePerRequestFilter {
+    private static final Pattern FINGERPRINTED = Pattern.compile(".+-[0-9a-f]{32}\\.[A-Za-z0-9]+$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())
+                || request.getRequestURI().startsWith("/api/")
+                || !FINGERPRINTED.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        chain.doFilter(request, new HttpServletResponseWrapper(response) {
+            // Una huella que no corresponde a ningún recurso no debe quedar en caché
+            @Override
+            public void sendError(int sc) throws IOException {
+                setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                super.sendError(sc);
+            }
+
+            @Override
+            public void sendError(int sc, String msg) throws IOException {
+                setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                super.sendError(sc, msg);
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.veterinary.web.config;
+
+import com.veterinary.web.api.RequesterArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final RequesterArgumentResolver requesterArgumentResolver;
+
+    public WebConfig(RequesterArgumentResolver requesterArgumentResolver) {
+        this.requesterArgumentResolver = requesterArgumentResolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(requesterArgumentResolver);
+    }
+}
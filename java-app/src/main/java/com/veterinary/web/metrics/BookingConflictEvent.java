@@ -0,0 +1,52 @@
+package com.veterinary.web.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de cada comprobación de solapamiento al reservar o mover una cita.
+ */
+@Name("com.veterinary.BookingConflictCheck")
+@Label("Comprobación de solapamiento")
+@Category({"Veterinaria", "Citas"})
+@Description("Resultado de la comprobación de solapamiento de una cita")
+@Enabled(false)
+@StackTrace(false)
+public final class BookingConflictEvent extends Event {
+    @Label("Veterinario")
+    String veterinarian;
+
+    @Label("Fecha")
+    String date;
+
+    @Label("Hora")
+    String time;
+
+    @Label("Citas del hueco examinadas")
+    int candidates;
+
+    @Label("Conflicto")
+    boolean conflict;
+
+    public static BookingConflictEvent start() {
+        BookingConflictEvent event = new BookingConflictEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(String veterinarian, String date, String time, int candidates, boolean conflict) {
+        if (shouldCommit()) {
+            this.veterinarian = veterinarian;
+            this.date = date;
+            this.time = time;
+            this.candidates = candidates;
+            this.conflict = conflict;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.veterinary.web.metrics;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimación del tamaño retenido de objetos sin agente de instrumentación: calcula el layout de
+ * HotSpot (cabecera, referencias comprimidas o no, alineación a 8 bytes y strings compactos) a
+ * partir de los campos de cada clase. Las clases del JDK que aparecen en las entidades (String,
+ * envoltorios, listas) se calculan aparte porque sus campos internos no son accesibles.
+ */
+final class FootprintEstimator {
+    private final boolean compressedOops;
+    private final int header;
+    private final int reference;
+    private final int arrayHeader;
+    private final Map<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<>();
+
+    FootprintEstimator() {
+        this.compressedOops = detectCompressedOops();
+        this.header = compressedOops ? 12 : 16;
+        this.reference = compressedOops ? 4 : 8;
+        this.arrayHeader = header + 4;
+    }
+
+    boolean isCompressedOops() {
+        return compressedOops;
+    }
+
+    int getHeader() {
+        return header;
+    }
+
+    int getReference() {
+        return reference;
+    }
+
+    /**
+     * Nodo de un ConcurrentHashMap: hash, clave, valor y siguiente.
+     */
+    long mapNode() {
+        return align(header + 4 + 3L * reference);
+    }
+
+    /**
+     * Tabla de un ConcurrentHashMap con {@code entries} entradas y factor de carga 0.75.
+     */
+    long mapTable(int entries) {
+        if (entries == 0) {
+            return 0;
+        }
+        long needed = (long) (entries / 0.75) + 1;
+        long capacity = 16;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return referenceArray(capacity);
+    }
+
+    /**
+     * Un ConcurrentHashMap completo sin contar claves ni valores: objeto, tabla y nodos.
+     */
+    long map(int entries) {
+        return align(header + 6L * reference + 8 + 3 * 4) + mapTable(entries) + entries * mapNode();
+    }
+
+    /**
+     * Objeto sin campos primitivos con {@code references} referencias.
+     */
+    long object(int references) {
+        return align(header + (long) references * reference);
+    }
+
+    long referenceArray(long length) {
+        return align(arrayHeader + length * reference);
+    }
+
+    /**
+     * Muestra sobre la que se acumulan tamaños; los objetos ya visitados en la muestra no se vuelven
+     * a contar, así que un String compartido entre entidades suma una sola vez.
+     */
+    Sample newSample() {
+        return new Sample();
+    }
+
+    final class Sample {
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<String> distinctStrings = new HashSet<>();
+        private long stringBytes;
+        private long distinctStringBytes;
+
+        long deepSize(Object value) {
+            if (value == null || !visited.add(value)) {
+                return 0;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                return string((String) value);
+            }
+            if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+                return boxed(value);
+            }
+            if (value instanceof Collection) {
+                return collection((Collection<?>) value);
+            }
+            if (type.isArray()) {
+                return array(value);
+            }
+            ClassLayout layout = layouts.computeIfAbsent(type, ClassLayout::new);
+            long size = layout.shallow;
+            for (Field field : layout.references) {
+                try {
+                    size += deepSize(field.get(value));
+                } catch (IllegalAccessException e) {
+                    // Campo inaccesible: solo cuenta su referencia, ya incluida en el tamaño superficial
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Proporción de los bytes de Strings de la muestra que repiten el contenido de otro String.
+         */
+        double stringDuplicationRatio() {
+            return stringBytes == 0 ? 0 : (double) (stringBytes - distinctStringBytes) / stringBytes;
+        }
+
+        private long string(String value) {
+            boolean latin1 = true;
+            for (int i = 0; i < value.length() && latin1; i++) {
+                latin1 = value.charAt(i) <= 0xFF;
+            }
+            long size = align(header + reference + 4 + 2) + align(arrayHeader + (long) value.length() * (latin1 ? 1 : 2));
+            stringBytes += size;
+            if (distinctStrings.add(value)) {
+                distinctStringBytes += size;
+            }
+            return size;
+        }
+
+        private long boxed(Object value) {
+            // Integer.valueOf y compañía reutilizan las instancias de -128 a 127
+            if ((value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+                    && ((Number) value).longValue() >= -128 && ((Number) value).longValue() <= 127) {
+                return 0;
+            }
+            if (value instanceof Boolean) {
+                return 0;
+            }
+            boolean wide = value instanceof Long || value instanceof Double;
+            return align(header + (wide ? 8 : 4));
+        }
+
+        private long collection(Collection<?> values) {
+            // Se estima como un ArrayList sin capacidad sobrante
+            long size = align(header + 4 + 4 + reference) + referenceArray(values.size());
+            for (Object element : values) {
+                size += deepSize(element);
+            }
+            return size;
+        }
+
+        private long array(Object value) {
+            if (value instanceof Object[]) {
+                Object[] elements = (Object[]) value;
+                long size = referenceArray(elements.length);
+                for (Object element : elements) {
+                    size += deepSize(element);
+                }
+                return size;
+            }
+            return align(arrayHeader + (long) java.lang.reflect.Array.getLength(value)
+                    * primitiveSize(value.getClass().getComponentType()));
+        }
+    }
+
+    private final class ClassLayout {
+        private final long shallow;
+        private final List<Field> references = new ArrayList<>();
+
+        ClassLayout(Class<?> type) {
+            long fields = 0;
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        fields += primitiveSize(field.getType());
+                    } else {
+                        fields += reference;
+                        if (field.trySetAccessible()) {
+                            references.add(field);
+                        }
+                    }
+                }
+            }
+            this.shallow = align(header + fields);
+        }
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static boolean detectCompressedOops() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            // JVM sin la opción (no HotSpot): se asume el caso habitual
+            return true;
+        }
+    }
+}
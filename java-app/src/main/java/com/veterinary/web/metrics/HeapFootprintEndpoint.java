@@ -0,0 +1,185 @@
+package com.veterinary.web.metrics;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.repository.PetRepository;
+import com.veterinary.web.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@code /actuator/footprint}: memoria estimada de cada repositorio y de sus estructuras
+ * secundarias. Para cada una da el número de entradas, los bytes retenidos estimados, la longitud
+ * media del historial (citas) y la proporción de bytes de Strings duplicados.
+ * <p>
+ * Solo se mide una muestra de {@code sample} entradas repartidas por todo el mapa y el resultado se
+ * extrapola, así que el coste no depende del tamaño de los datos salvo por el recorrido de las
+ * claves, sin copias ni locks. Las cifras son aproximadas: no ven capacidad sobrante ni Strings
+ * compartidos entre entradas fuera de la muestra.
+ */
+@Component
+@Endpoint(id = "footprint")
+public class HeapFootprintEndpoint {
+    private static final int MAX_SAMPLE = 10_000;
+
+    private final PetRepository petRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+    private final int defaultSample;
+    private final FootprintEstimator estimator = new FootprintEstimator();
+
+    public HeapFootprintEndpoint(PetRepository petRepository, AppointmentRepository appointmentRepository,
+                                 UserRepository userRepository,
+                                 @Value("${veterinary.footprint.sample-size:512}") int defaultSample) {
+        this.petRepository = petRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+        this.defaultSample = defaultSample;
+    }
+
+    @ReadOperation
+    public Map<String, Object> footprint(@Nullable Integer sample) {
+        int limit = Math.max(1, Math.min(MAX_SAMPLE, sample == null ? defaultSample : sample));
+        long start = System.nanoTime();
+
+        Map<String, Object> pet = new LinkedHashMap<>();
+        pet.put("pets", entities(petRepository.count(), petRepository.streamAll().iterator(), limit, null));
+
+        Map<String, Object> appointment = new LinkedHashMap<>();
+        appointment.put("appointments", entities(appointmentRepository.count(),
+                appointmentRepository.streamAll().iterator(), limit, Appointment::getHistory));
+        appointment.put("slotIndex", slotIndex(limit));
+        appointment.put("slotById", slotById(limit));
+
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("users", entities(userRepository.count(), userRepository.streamAll().iterator(), limit, null));
+
+        Map<String, Object> repositories = new LinkedHashMap<>();
+        repositories.put("pet", pet);
+        repositories.put("appointment", appointment);
+        repositories.put("user", user);
+
+        Map<String, Object> layout = new LinkedHashMap<>();
+        layout.put("compressedOops", estimator.isCompressedOops());
+        layout.put("objectHeaderBytes", estimator.getHeader());
+        layout.put("referenceBytes", estimator.getReference());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sampleSize", limit);
+        result.put("estimatedTotalBytes", total(repositories));
+        result.put("repositories", repositories);
+        result.put("layout", layout);
+        result.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * Mapa principal de un repositorio: nodo, entidad y todo lo que cuelga de ella. La clave es el
+     * id de la entidad, el mismo String, y no se cuenta dos veces.
+     */
+    private <T> Map<String, Object> entities(int count, Iterator<T> values, int limit,
+                                             @Nullable Function<T, List<String>> history) {
+        List<T> sampled = sample(values, count, limit);
+        FootprintEstimator.Sample sample = estimator.newSample();
+        long bytes = 0;
+        long historyEntries = 0;
+        for (T value : sampled) {
+            bytes += sample.deepSize(value);
+            if (history != null) {
+                List<String> entries = history.apply(value);
+                historyEntries += entries == null ? 0 : entries.size();
+            }
+        }
+        Map<String, Object> structure = structure(count, sampled.size(), bytes, estimator.mapNode(),
+                estimator.map(0) + estimator.mapTable(count), sample);
+        if (history != null) {
+            structure.put("averageHistoryLength", sampled.isEmpty() ? 0 : (double) historyEntries / sampled.size());
+        }
+        return structure;
+    }
+
+    /**
+     * Índice (veterinario, fecha) -> ids: clave propia y un conjunto concurrente por hueco. Los ids
+     * del conjunto son los mismos Strings que las claves del mapa de citas y solo cuentan como referencia.
+     */
+    private Map<String, Object> slotIndex(int limit) {
+        Map<String, Set<String>> index = appointmentRepository.indexedSlotIds();
+        List<Map.Entry<String, Set<String>>> sampled = sample(index.entrySet().iterator(), index.size(), limit);
+        FootprintEstimator.Sample sample = estimator.newSample();
+        // Cada conjunto es un KeySetView (mapa y valor) sobre su propio ConcurrentHashMap
+        long keySetView = estimator.object(2);
+        return sized(index.size(), sampled, sample, entry ->
+                sample.deepSize(entry.getKey()) + keySetView + estimator.map(entry.getValue().size()));
+    }
+
+    /**
+     * Índice inverso id -> (veterinario, fecha); el id se comparte con el mapa de citas.
+     */
+    private Map<String, Object> slotById(int limit) {
+        Map<String, String> index = appointmentRepository.indexedSlotKeys();
+        List<Map.Entry<String, String>> sampled = sample(index.entrySet().iterator(), index.size(), limit);
+        FootprintEstimator.Sample sample = estimator.newSample();
+        return sized(index.size(), sampled, sample, entry -> sample.deepSize(entry.getValue()));
+    }
+
+    private <T> Map<String, Object> sized(int count, List<T> sampled, FootprintEstimator.Sample sample,
+                                          ToLongFunction<T> size) {
+        long bytes = 0;
+        for (T entry : sampled) {
+            bytes += size.applyAsLong(entry);
+        }
+        return structure(count, sampled.size(), bytes, estimator.mapNode(),
+                estimator.map(0) + estimator.mapTable(count), sample);
+    }
+
+    private static Map<String, Object> structure(int count, int sampled, long sampledBytes, long perEntryOverhead,
+                                                 long fixedOverhead, FootprintEstimator.Sample sample) {
+        double perEntry = sampled == 0 ? 0 : (double) sampledBytes / sampled + perEntryOverhead;
+        Map<String, Object> structure = new LinkedHashMap<>();
+        structure.put("entries", count);
+        structure.put("sampled", sampled);
+        structure.put("estimatedBytes", fixedOverhead + Math.round(perEntry * count));
+        structure.put("bytesPerEntry", Math.round(perEntry));
+        structure.put("stringDuplicationRatio", Math.round(sample.stringDuplicationRatio() * 1000) / 1000.0);
+        return structure;
+    }
+
+    /**
+     * Toma uno de cada {@code count / limit} elementos para que la muestra cubra todo el mapa y no
+     * solo sus primeros cubos.
+     */
+    private static <T> List<T> sample(Iterator<T> values, int count, int limit) {
+        int stride = Math.max(1, count / limit);
+        List<T> sampled = new ArrayList<>(Math.min(count, limit));
+        for (int i = 0; values.hasNext() && sampled.size() < limit; i++) {
+            T value = values.next();
+            if (i % stride == 0) {
+                sampled.add(value);
+            }
+        }
+        return sampled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long total(Map<String, Object> repositories) {
+        long total = 0;
+        for (Object repository : repositories.values()) {
+            for (Object structure : ((Map<String, Object>) repository).values()) {
+                total += (Long) ((Map<String, Object>) structure).get("estimatedBytes");
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,60 @@
+package com.veterinary.web.metrics;
+
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * Emite un {@link ResponseEvent} por petición. Es una válvula de Tomcat y no un filtro porque
+ * Tomcat llama a {@link #log} cuando la respuesta ha terminado de verdad (también tras un
+ * {@code DeferredResult} o un streaming) y conoce los bytes escritos sin envolver la respuesta.
+ * Sin grabación JFR que active el evento no se crea nada más que el objeto del evento.
+ */
+public class JfrResponseValve extends ValveBase implements AccessLog {
+    private static final String EVENT_ATTRIBUTE = JfrResponseValve.class.getName() + ".event";
+
+    public JfrResponseValve() {
+        super(true);
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        ResponseEvent event = new ResponseEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        getNext().invoke(request, response);
+    }
+
+    @Override
+    public void log(Request request, Response response, long time) {
+        Object attribute = request.getAttribute(EVENT_ATTRIBUTE);
+        if (!(attribute instanceof ResponseEvent)) {
+            return;
+        }
+        ResponseEvent event = (ResponseEvent) attribute;
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = request.getMethod();
+            event.uri = request.getRequestURI();
+            event.status = response.getStatus();
+            event.contentType = response.getContentType();
+            event.bytes = response.getBytesWritten(false);
+            event.commit();
+        }
+    }
+
+    @Override
+    public void setRequestAttributesEnabled(boolean requestAttributesEnabled) {
+    }
+
+    @Override
+    public boolean getRequestAttributesEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.veterinary.web.metrics;
+
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.repository.PetRepository;
+import com.veterinary.web.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tamaño de cada repositorio ({@code veterinary.repository.size}) y del índice de citas por
+ * (veterinario, fecha) ({@code veterinary.appointments.slot.index}: huecos distintos y citas indexadas).
+ */
+@Component
+public class RepositoryGauges implements MeterBinder {
+    private final PetRepository petRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final UserRepository userRepository;
+
+    public RepositoryGauges(PetRepository petRepository, AppointmentRepository appointmentRepository,
+                            UserRepository userRepository) {
+        this.petRepository = petRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("veterinary.repository.size", petRepository, PetRepository::count)
+                .tag("repository", "pet").register(registry);
+        Gauge.builder("veterinary.repository.size", appointmentRepository, AppointmentRepository::count)
+                .tag("repository", "appointment").register(registry);
+        Gauge.builder("veterinary.repository.size", userRepository, UserRepository::count)
+                .tag("repository", "user").register(registry);
+        Gauge.builder("veterinary.appointments.slot.index", appointmentRepository, AppointmentRepository::indexedSlots)
+                .tag("entries", "slots").register(registry);
+        Gauge.builder("veterinary.appointments.slot.index", appointmentRepository, AppointmentRepository::indexedAppointments)
+                .tag("entries", "appointments").register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.veterinary.web.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer {@code veterinary.repository} por repositorio y operación para cada método público de
+ * los repositorios. Se excluyen los que se llaman en cada petición solo para leer un contador
+ * ({@code version}, los tamaños de las métricas) y {@code streamAll}, que devuelve un stream
+ * perezoso cuyo coste no se paga dentro del método.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+    private final MeterRegistry registry;
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.veterinary.web.repository.*Repository.*(..))"
+            + " && !execution(* version()) && !execution(* count()) && !execution(* indexed*())"
+            + " && !execution(* streamAll()) && !execution(* addChangeListener(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, this::newTimer);
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            RequestTiming.addRepository(elapsed);
+        }
+    }
+
+    private Timer newTimer(Method method) {
+        String repository = method.getDeclaringClass().getSimpleName().replace("Repository", "").toLowerCase();
+        return Timer.builder("veterinary.repository")
+                .description("Duración de las operaciones de los repositorios en memoria")
+                .tag("repository", repository)
+                .tag("operation", method.getName())
+                .register(registry);
+    }
+}
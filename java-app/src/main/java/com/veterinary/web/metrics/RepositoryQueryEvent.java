@@ -0,0 +1,50 @@
+package com.veterinary.web.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una consulta que recorre un repositorio: cuántas entidades examinó y cuántas
+ * devolvió. Desactivado salvo con el perfil {@code jfr/veterinary.jfc}; sin grabación activa
+ * {@link #begin()} y {@link #finish} no hacen nada.
+ */
+@Name("com.veterinary.RepositoryQuery")
+@Label("Consulta de repositorio")
+@Category({"Veterinaria", "Repositorios"})
+@Description("Consulta que recorre entidades de un repositorio en memoria")
+@Enabled(false)
+@StackTrace(false)
+public final class RepositoryQueryEvent extends Event {
+    @Label("Repositorio")
+    String repository;
+
+    @Label("Operación")
+    String operation;
+
+    @Label("Entidades examinadas")
+    int scanned;
+
+    @Label("Resultados")
+    int results;
+
+    public static RepositoryQueryEvent start(String repository, String operation) {
+        RepositoryQueryEvent event = new RepositoryQueryEvent();
+        event.repository = repository;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int scanned, int results) {
+        if (shouldCommit()) {
+            this.scanned = scanned;
+            this.results = results;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.veterinary.web.metrics;
+
+/**
+ * Desglose de tiempos de la petición que atiende el hilo actual: comprobación de identidad,
+ * repositorios y serialización de la respuesta. Lo abre {@link SlowRequestFilter}; fuera de una
+ * petición los métodos estáticos no hacen nada.
+ */
+public final class RequestTiming {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    final Thread thread;
+    final long startNanos;
+    final long startMillis;
+    long authNanos;
+    long repositoryNanos;
+    int repositoryCalls;
+    long serializationStartNanos;
+    // Lo escribe el hilo muestreador mientras la petición sigue en curso
+    volatile StackTraceElement[] stack;
+
+    private RequestTiming() {
+        this.thread = Thread.currentThread();
+        this.startNanos = System.nanoTime();
+        this.startMillis = System.currentTimeMillis();
+    }
+
+    static RequestTiming open() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    void close() {
+        CURRENT.remove();
+    }
+
+    public static void addAuth(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.authNanos += nanos;
+        }
+    }
+
+    public static void addRepository(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.repositoryNanos += nanos;
+            timing.repositoryCalls++;
+        }
+    }
+
+    /**
+     * Marca el momento en que el controlador entrega el cuerpo a los conversores; lo que queda
+     * hasta el final de la petición se cuenta como serialización.
+     */
+    public static void markSerialization() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.serializationStartNanos == 0) {
+            timing.serializationStartNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.veterinary.web.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR por petición HTTP con los bytes escritos en la respuesta. Lo emite
+ * {@link JfrResponseValve} cuando la petición termina, incluidas las asíncronas.
+ */
+@Name("com.veterinary.Response")
+@Label("Respuesta HTTP")
+@Category({"Veterinaria", "HTTP"})
+@Description("Petición HTTP completa y tamaño del cuerpo serializado")
+@Enabled(false)
+@StackTrace(false)
+public final class ResponseEvent extends Event {
+    @Label("Método")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Estado")
+    int status;
+
+    @Label("Content-Type")
+    String contentType;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,69 @@
+package com.veterinary.web.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Una petición que superó el umbral de {@link SlowRequestLog}. Los tiempos van en milisegundos;
+ * {@code handlerMs} es lo que no se atribuye a identidad, repositorios ni serialización.
+ */
+public final class SlowRequest {
+    final long sequence;
+    private final long timestamp;
+    private final String method;
+    private final String route;
+    private final String uri;
+    private final Map<String, String> pathVariables;
+    private final String query;
+    private final int status;
+    private final String thread;
+    private final double totalMs;
+    private final double authMs;
+    private final double repositoryMs;
+    private final int repositoryCalls;
+    private final double serializationMs;
+    private final double handlerMs;
+    private final List<String> stack;
+
+    SlowRequest(long sequence, long timestamp, String method, String route, String uri,
+                Map<String, String> pathVariables, String query, int status, String thread,
+                long totalNanos, long authNanos, long repositoryNanos, int repositoryCalls,
+                long serializationNanos, List<String> stack) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.method = method;
+        this.route = route;
+        this.uri = uri;
+        this.pathVariables = pathVariables;
+        this.query = query;
+        this.status = status;
+        this.thread = thread;
+        this.totalMs = millis(totalNanos);
+        this.authMs = millis(authNanos);
+        this.repositoryMs = millis(repositoryNanos);
+        this.repositoryCalls = repositoryCalls;
+        this.serializationMs = millis(serializationNanos);
+        this.handlerMs = millis(Math.max(0, totalNanos - authNanos - repositoryNanos - serializationNanos));
+        this.stack = stack;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public String getMethod() { return method; }
+    public String getRoute() { return route; }
+    public String getUri() { return uri; }
+    public Map<String, String> getPathVariables() { return pathVariables; }
+    public String getQuery() { return query; }
+    public int getStatus() { return status; }
+    public String getThread() { return thread; }
+    public double getTotalMs() { return totalMs; }
+    public double getAuthMs() { return authMs; }
+    public double getRepositoryMs() { return repositoryMs; }
+    public int getRepositoryCalls() { return repositoryCalls; }
+    public double getSerializationMs() { return serializationMs; }
+    public double getHandlerMs() { return handlerMs; }
+    public List<String> getStack() { return stack; }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.veterinary.web.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/slowrequests}: las últimas peticiones que superaron el umbral, con su desglose
+ * de tiempos y la pila muestreada a mitad de la petición.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestEndpoint {
+    private final SlowRequestLog slowRequests;
+
+    public SlowRequestEndpoint(SlowRequestLog slowRequests) {
+        this.slowRequests = slowRequests;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowRequests() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", slowRequests.isEnabled());
+        result.put("thresholdMs", slowRequests.getThresholdMs());
+        result.put("capacity", slowRequests.getCapacity());
+        result.put("recorded", slowRequests.getRecorded());
+        result.put("inFlight", slowRequests.getInFlight());
+        result.put("requests", slowRequests.entries());
+        return result;
+    }
+}
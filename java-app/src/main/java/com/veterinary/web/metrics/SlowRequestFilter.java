@@ -0,0 +1,42 @@
+package com.veterinary.web.metrics;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Mide cada petición de principio a fin y entrega a {@link SlowRequestLog} las que superan el
+ * umbral. Va el primero de la cadena para incluir también el tiempo de los demás filtros.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SlowRequestFilter extends OncePerRequestFilter {
+    private final SlowRequestLog slowRequests;
+
+    public SlowRequestFilter(SlowRequestLog slowRequests) {
+        this.slowRequests = slowRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !slowRequests.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = slowRequests.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            slowRequests.finish(timing, request, response);
+        }
+    }
+}
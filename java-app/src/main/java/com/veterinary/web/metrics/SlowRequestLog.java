@@ -0,0 +1,168 @@
+package com.veterinary.web.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registro de las peticiones más lentas que {@code threshold-ms}. Las últimas {@code capacity}
+ * se guardan en un buffer circular sin locks: cada petición lenta reserva posición con un
+ * incremento atómico y escribe su entrada, pisando la más antigua.
+ * <p>
+ * Un hilo muestreador revisa las peticiones en curso cada {@code threshold-ms / 4} y toma una vez
+ * la pila del hilo de cada una que ya lleva la mitad del umbral, de modo que la entrada muestra
+ * dónde estaba parada a mitad de la petición y no solo cuánto tardó. Las peticiones rápidas no se
+ * muestrean y solo pagan el alta y la baja en el conjunto de peticiones en curso.
+ */
+@Component
+public class SlowRequestLog {
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final long stackAfterNanos;
+    private final int stackDepth;
+    private final AtomicReferenceArray<SlowRequest> buffer;
+    private final int mask;
+    private final AtomicLong recorded = new AtomicLong();
+    private final Set<RequestTiming> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sampler;
+
+    public SlowRequestLog(@Value("${veterinary.slow-requests.enabled:true}") boolean enabled,
+                          @Value("${veterinary.slow-requests.threshold-ms:1000}") long thresholdMs,
+                          @Value("${veterinary.slow-requests.capacity:256}") int capacity,
+                          @Value("${veterinary.slow-requests.stack-depth:40}") int stackDepth) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, thresholdMs));
+        this.stackAfterNanos = thresholdNanos / 2;
+        this.stackDepth = stackDepth;
+        // Potencia de dos para calcular la posición con una máscara
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        if (enabled) {
+            long period = Math.max(1, thresholdMs / 4);
+            this.sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "slow-request-sampler");
+                thread.setDaemon(true);
+                // Sin heredar el classloader de Tomcat, que lo daría por fuga al parar el servidor
+                thread.setContextClassLoader(SlowRequestLog.class.getClassLoader());
+                return thread;
+            });
+            sampler.scheduleWithFixedDelay(this::sampleStacks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.sampler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    RequestTiming begin() {
+        RequestTiming timing = RequestTiming.open();
+        inFlight.add(timing);
+        return timing;
+    }
+
+    /**
+     * Cierra la petición y la guarda si superó el umbral. Las asíncronas (long-poll, streaming)
+     * se ignoran: su duración es la espera que pide el cliente, no trabajo del servidor.
+     */
+    void finish(RequestTiming timing, HttpServletRequest request, HttpServletResponse response) {
+        long end = System.nanoTime();
+        timing.close();
+        inFlight.remove(timing);
+        long total = end - timing.startNanos;
+        if (total < thresholdNanos || request.isAsyncStarted()) {
+            return;
+        }
+        long serialization = timing.serializationStartNanos == 0 ? 0 : end - timing.serializationStartNanos;
+        long sequence = recorded.getAndIncrement();
+        buffer.set((int) (sequence & mask), new SlowRequest(sequence, timing.startMillis, request.getMethod(),
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), request.getRequestURI(),
+                pathVariables(request), request.getQueryString(), response.getStatus(), timing.thread.getName(),
+                total, timing.authNanos, timing.repositoryNanos, timing.repositoryCalls, serialization,
+                stack(timing.stack)));
+    }
+
+    /**
+     * Entradas guardadas, de la más reciente a la más antigua.
+     */
+    public List<SlowRequest> entries() {
+        long next = recorded.get();
+        List<SlowRequest> entries = new ArrayList<>();
+        for (long sequence = next - 1; sequence >= 0 && sequence >= next - buffer.length(); sequence--) {
+            SlowRequest entry = buffer.get((int) (sequence & mask));
+            // Una posición aún sin escribir o ya pisada por una petición más nueva se salta
+            if (entry != null && entry.sequence == sequence) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    public long getThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private void sampleStacks() {
+        long now = System.nanoTime();
+        for (RequestTiming timing : inFlight) {
+            if (timing.stack == null && now - timing.startNanos >= stackAfterNanos) {
+                timing.stack = timing.thread.getStackTrace();
+            }
+        }
+    }
+
+    private List<String> stack(StackTraceElement[] stack) {
+        if (stack == null) {
+            return null;
+        }
+        List<String> frames = new ArrayList<>(Math.min(stack.length, stackDepth));
+        for (StackTraceElement element : Arrays.asList(stack).subList(0, Math.min(stack.length, stackDepth))) {
+            frames.add(element.toString());
+        }
+        return Collections.unmodifiableList(frames);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> pathVariables(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map ? new LinkedHashMap<>((Map<String, String>) variables) : Collections.emptyMap();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.veterinary.web.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Appointment {
@@ -16,6 +17,7 @@ public class Appointment {
     private String time; 
     private long createdAt;
     private long updatedAt;
+    private long version; // asignada por el repositorio en cada guardado
     private List<String> history;
 
     public String getId() { return id; }
@@ -42,6 +44,30 @@ public class Appointment {
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
     public long getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
     public List<String> getHistory() { return history; }
     public void setHistory(List<String> history) { this.history = history; }
-}
\ No newline at end of file
+
+    /**
+     * Copia para modificar sin alterar la instancia ya publicada en el repositorio.
+     */
+    public Appointment copy() {
+        Appointment copy = new Appointment();
+        copy.id = id;
+        copy.petId = petId;
+        copy.veterinarian = veterinarian;
+        copy.reason = reason;
+        copy.description = description;
+        copy.priority = priority;
+        copy.type = type;
+        copy.status = status;
+        copy.date = date;
+        copy.time = time;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.version = version;
+        copy.history = history != null ? new ArrayList<>(history) : null;
+        return copy;
+    }
+}
@@ -0,0 +1,30 @@
+package com.veterinary.web.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentBatchRequest {
+    private boolean atomic; // todo o nada
+    private List<Operation> operations = new ArrayList<>();
+
+    public boolean isAtomic() { return atomic; }
+    public void setAtomic(boolean atomic) { this.atomic = atomic; }
+    public List<Operation> getOperations() { return operations; }
+    public void setOperations(List<Operation> operations) { this.operations = operations; }
+
+    public static class Operation {
+        private String op; // 'create', 'update', 'delete', 'status'
+        private String id;
+        private String status;
+        private Appointment appointment;
+
+        public String getOp() { return op; }
+        public void setOp(String op) { this.op = op; }
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public Appointment getAppointment() { return appointment; }
+        public void setAppointment(Appointment appointment) { this.appointment = appointment; }
+    }
+}
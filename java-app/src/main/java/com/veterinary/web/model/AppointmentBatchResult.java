@@ -0,0 +1,45 @@
+package com.veterinary.web.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentBatchResult {
+    private boolean applied;
+    private int succeeded;
+    private int failed;
+    private final List<Item> results = new ArrayList<>();
+
+    public boolean isApplied() { return applied; }
+    public void setApplied(boolean applied) { this.applied = applied; }
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public List<Item> getResults() { return results; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private final int index;
+        private int status; // código HTTP equivalente a la operación individual
+        private Appointment appointment;
+        private String error;
+
+        public Item(int index, int status, Appointment appointment, String error) {
+            this.index = index;
+            this.status = status;
+            this.appointment = appointment;
+            this.error = error;
+        }
+
+        public boolean isOk() { return error == null; }
+        public int getIndex() { return index; }
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+        public Appointment getAppointment() { return appointment; }
+        public void setAppointment(Appointment appointment) { this.appointment = appointment; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
@@ -0,0 +1,47 @@
+package com.veterinary.web.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva. {@code row} es el número de línea en NDJSON
+ * y el número de registro (sin contar la cabecera) en CSV.
+ */
+public class ImportReport {
+    private long processed;
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addError(long row, String error, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(row, error));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void addProcessed(long count) { processed += count; }
+    public void addImported(long count) { imported += count; }
+
+    public long getProcessed() { return processed; }
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public List<RowError> getErrors() { return errors; }
+
+    public static class RowError {
+        private final long row;
+        private final String error;
+
+        public RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() { return row; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,23 @@
+package com.veterinary.web.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Respuesta de login: los datos del usuario (al mismo nivel que antes) más el token de sesión.
+ */
+public class LoginResponse {
+    @JsonUnwrapped
+    private final User user;
+    private final String token;
+    private final long expiresAt;
+
+    public LoginResponse(User user, String token, long expiresAt) {
+        this.user = user;
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public User getUser() { return user; }
+    public String getToken() { return token; }
+    public long getExpiresAt() { return expiresAt; }
+}
@@ -12,6 +12,9 @@ public class Pet {
     private String ownerEmail;
     private long createdAt;
     private long updatedAt;
+    private String photoContentType; // null si la mascota no tiene foto
+    private Long photoUpdatedAt;
+    private long version; // asignada por el repositorio en cada guardado
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -35,4 +38,32 @@ public class Pet {
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
     public long getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
-}
\ No newline at end of file
+    public String getPhotoContentType() { return photoContentType; }
+    public void setPhotoContentType(String photoContentType) { this.photoContentType = photoContentType; }
+    public Long getPhotoUpdatedAt() { return photoUpdatedAt; }
+    public void setPhotoUpdatedAt(Long photoUpdatedAt) { this.photoUpdatedAt = photoUpdatedAt; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    /**
+     * Copia para modificar sin alterar la instancia ya publicada en el repositorio.
+     */
+    public Pet copy() {
+        Pet copy = new Pet();
+        copy.id = id;
+        copy.name = name;
+        copy.age = age;
+        copy.breed = breed;
+        copy.type = type;
+        copy.familyType = familyType;
+        copy.ownerName = ownerName;
+        copy.ownerPhone = ownerPhone;
+        copy.ownerEmail = ownerEmail;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.photoContentType = photoContentType;
+        copy.photoUpdatedAt = photoUpdatedAt;
+        copy.version = version;
+        return copy;
+    }
+}
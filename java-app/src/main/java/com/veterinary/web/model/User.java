@@ -1,9 +1,13 @@
 package com.veterinary.web.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class User {
     private String id;
     private String name;
     private String email;
+    // Hash PBKDF2 (o texto plano heredado hasta el siguiente login); nunca se serializa
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String role; // 'user' | 'veterinarian'
     private String phone;
@@ -23,4 +27,19 @@ public class User {
     public void setPhone(String phone) { this.phone = phone; }
     public long getCreatedAt() { return createdAt; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
-}
\ No newline at end of file
+
+    /**
+     * Copia para modificar sin alterar la instancia ya publicada en el repositorio.
+     */
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.name = name;
+        copy.email = email;
+        copy.password = password;
+        copy.role = role;
+        copy.phone = phone;
+        copy.createdAt = createdAt;
+        return copy;
+    }
+}
@@ -0,0 +1,177 @@
+package com.veterinary.web.recording;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quita los datos personales de las peticiones grabadas. Emails, nombres de personas (dueños,
+ * usuarios y veterinarios), teléfonos y contraseñas se sustituyen por seudónimos derivados de un
+ * hash con sal aleatoria por grabación: el mismo valor da el mismo seudónimo dentro de una
+ * grabación (la forma del tráfico por usuario y los choques de agenda por veterinario se
+ * conservan) pero no se puede deshacer ni cruzar entre grabaciones. El texto libre de las citas
+ * ({@code reason}, {@code description}) puede contener cualquier dato, así que se cambia por
+ * relleno de la misma longitud. En el resto de textos se sustituyen los emails.
+ */
+final class Anonymizer {
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}");
+    private static final Set<String> EMAIL_FIELDS = Set.of("email", "ownerEmail");
+    private static final Set<String> NAME_FIELDS = Set.of("ownerName");
+    private static final Set<String> VETERINARIAN_FIELDS = Set.of("veterinarian");
+    private static final Set<String> FREE_TEXT_FIELDS = Set.of("reason", "description");
+    private static final Set<String> PHONE_FIELDS = Set.of("phone", "ownerPhone");
+    private static final String PASSWORD_FIELD = "password";
+
+    private final ObjectMapper mapper;
+    private final byte[] salt = new byte[16];
+
+    Anonymizer(ObjectMapper mapper) {
+        this.mapper = mapper;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    String email(String email) {
+        return email == null || email.isBlank() ? null : "u" + hash(email.trim().toLowerCase()) + "@anon.test";
+    }
+
+    /**
+     * Cuerpo JSON anonimizado, o null si no es JSON válido (no se guarda nada que no se haya podido revisar).
+     */
+    byte[] json(byte[] body) {
+        try {
+            JsonNode root = mapper.readTree(body);
+            return root == null ? body : mapper.writeValueAsBytes(clean(root));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * NDJSON: cada línea como un documento JSON.
+     */
+    byte[] ndjson(byte[] body) {
+        StringBuilder out = new StringBuilder(body.length);
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            byte[] cleaned = json(line.getBytes(StandardCharsets.UTF_8));
+            if (cleaned == null) {
+                return null;
+            }
+            out.append(new String(cleaned, StandardCharsets.UTF_8)).append('\n');
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private JsonNode clean(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            // En un usuario (objeto con email) el nombre es el de una persona
+            boolean person = object.has("email");
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(cleanField(field.getKey(), field.getValue(), person));
+            }
+            return object;
+        }
+        if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, clean(array.get(i)));
+            }
+            return array;
+        }
+        if (node.isTextual()) {
+            return new TextNode(replaceEmails(node.asText()));
+        }
+        return node;
+    }
+
+    private JsonNode cleanField(String name, JsonNode value, boolean person) {
+        if (!value.isTextual()) {
+            return clean(value);
+        }
+        String text = value.asText();
+        if (PASSWORD_FIELD.equals(name)) {
+            return new TextNode("anonimizada");
+        }
+        if (EMAIL_FIELDS.contains(name)) {
+            return new TextNode(email(text));
+        }
+        if (NAME_FIELDS.contains(name) || person && "name".equals(name)) {
+            return new TextNode("Persona " + hash(text));
+        }
+        if (VETERINARIAN_FIELDS.contains(name)) {
+            return new TextNode("Veterinario " + hash(text));
+        }
+        if (FREE_TEXT_FIELDS.contains(name)) {
+            return new TextNode(filler(text));
+        }
+        if (PHONE_FIELDS.contains(name)) {
+            return new TextNode(String.format("555-%04d", Integer.parseInt(hash(text).substring(0, 4), 16) % 10000));
+        }
+        return new TextNode(replaceEmails(text));
+    }
+
+    /**
+     * Texto libre (p. ej. una query) con los emails sustituidos.
+     */
+    String replaceEmails(String text) {
+        if (text == null || text.indexOf('@') < 0) {
+            return text;
+        }
+        Matcher matcher = EMAIL.matcher(text);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(email(matcher.group())));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * Relleno de la misma longitud que {@code text}: el tamaño de los cuerpos reproducidos no cambia
+     * y el mismo texto da el mismo relleno.
+     */
+    private String filler(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        String hash = hash(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (out.length() < text.length()) {
+            out.append(hash, 0, Math.min(hash.length(), text.length() - out.length()));
+        }
+        return out.toString();
+    }
+
+    private String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(12);
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.veterinary.web.recording;
+
+/**
+ * Una petición de una grabación. {@code offsetMicros} es el instante de llegada relativo al
+ * inicio de la grabación y {@code body} es null cuando el cuerpo no se guardó (binario, CSV o
+ * demasiado grande). {@code email} ya viene seudonimizado.
+ */
+public final class RecordedRequest {
+    private final long offsetMicros;
+    private final String method;
+    private final String path;
+    private final String query;
+    private final String contentType;
+    private final String role;
+    private final String email;
+    private final byte[] body;
+    private final int status;
+
+    public RecordedRequest(long offsetMicros, String method, String path, String query, String contentType,
+                           String role, String email, byte[] body, int status) {
+        this.offsetMicros = offsetMicros;
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.contentType = contentType;
+        this.role = role;
+        this.email = email;
+        this.body = body;
+        this.status = status;
+    }
+
+    public long getOffsetMicros() { return offsetMicros; }
+    public String getMethod() { return method; }
+    public String getPath() { return path; }
+    public String getQuery() { return query; }
+    public String getContentType() { return contentType; }
+    public String getRole() { return role; }
+    public String getEmail() { return email; }
+    public byte[] getBody() { return body; }
+    public int getStatus() { return status; }
+
+    /**
+     * Ruta con los segmentos numéricos sustituidos por {@code {id}}, para agrupar en los informes.
+     */
+    public String getRoute() {
+        return method + " " + path.replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+}
@@ -0,0 +1,25 @@
+package com.veterinary.web.recording;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/recording}: peticiones grabadas, descartadas y pendientes de escribir.
+ */
+@Component
+@Endpoint(id = "recording")
+public class RecordingEndpoint {
+    private final RequestRecorder recorder;
+
+    public RecordingEndpoint(RequestRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> recording() {
+        return recorder.getStats();
+    }
+}
@@ -0,0 +1,142 @@
+package com.veterinary.web.recording;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato binario de las grabaciones: la cabecera {@code VREC}, la versión y el instante de inicio
+ * (epoch ms), seguidos de un registro por petición. Los enteros van como varint y las cadenas como
+ * longitud varint más UTF-8, así que un GET típico ocupa unas pocas decenas de bytes.
+ * <pre>
+ * offsetMicros · método · ruta · query · content-type · rol · email · (cuerpo + 1 | 0) · estado
+ * </pre>
+ * El método es un byte (0 GET, 1 POST, 2 PUT, 3 DELETE, 4 PATCH) o 255 seguido del nombre.
+ */
+public final class RequestLogFormat {
+    private static final int MAGIC = 0x56524543; // "VREC"
+    private static final int VERSION = 1;
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+    private static final int OTHER_METHOD = 255;
+
+    private RequestLogFormat() {
+    }
+
+    public static void writeHeader(DataOutputStream out, long startedAt) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(startedAt);
+    }
+
+    /**
+     * Lee la cabecera y devuelve el instante de inicio de la grabación.
+     */
+    public static long readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("No es una grabación de peticiones");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Versión de grabación no soportada: " + version);
+        }
+        return in.readLong();
+    }
+
+    public static void write(DataOutputStream out, RecordedRequest request) throws IOException {
+        writeVarLong(out, request.getOffsetMicros());
+        int method = methodCode(request.getMethod());
+        out.writeByte(method);
+        if (method == OTHER_METHOD) {
+            writeString(out, request.getMethod());
+        }
+        writeString(out, request.getPath());
+        writeString(out, request.getQuery());
+        writeString(out, request.getContentType());
+        writeString(out, request.getRole());
+        writeString(out, request.getEmail());
+        byte[] body = request.getBody();
+        if (body == null) {
+            writeVarLong(out, 0);
+        } else {
+            writeVarLong(out, body.length + 1L);
+            out.write(body);
+        }
+        writeVarLong(out, request.getStatus());
+    }
+
+    /**
+     * Siguiente registro, o null al llegar al final. Un registro cortado a medias (la aplicación
+     * se detuvo mientras escribía) también se trata como final.
+     */
+    public static RecordedRequest read(DataInputStream in) throws IOException {
+        long offset;
+        try {
+            offset = readVarLong(in);
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            int code = in.readUnsignedByte();
+            String method = code == OTHER_METHOD ? readString(in) : METHODS[code];
+            String path = readString(in);
+            String query = readString(in);
+            String contentType = readString(in);
+            String role = readString(in);
+            String email = readString(in);
+            long bodyLength = readVarLong(in);
+            byte[] body = null;
+            if (bodyLength > 0) {
+                body = new byte[(int) (bodyLength - 1)];
+                in.readFully(body);
+            }
+            int status = (int) readVarLong(in);
+            return new RecordedRequest(offset, method, path, query, contentType, role, email, body, status);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int methodCode(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return OTHER_METHOD;
+    }
+
+    // Las cadenas nulas se guardan como vacías
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+}
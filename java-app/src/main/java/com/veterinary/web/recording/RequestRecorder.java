@@ -0,0 +1,211 @@
+package com.veterinary.web.recording;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Graba las peticiones a la API (ver {@link RequestLogFormat}) para reproducirlas después con
+ * {@code RequestReplay}. Cada arranque crea un fichero nuevo junto a {@code veterinary.recording.file}
+ * con la hora en el nombre ({@code requests-20260601-093000.vrec}); nunca se sobrescribe una
+ * grabación anterior. El hilo de la petición solo copia los
+ * datos y los deja en una cola acotada; un hilo aparte los anonimiza ({@link Anonymizer}) y los
+ * escribe. Si la cola se llena o el fichero alcanza {@code max-file-bytes}, las peticiones se
+ * descartan y se cuentan, nunca se espera.
+ */
+@Component
+public class RequestRecorder {
+    private static final Logger log = LoggerFactory.getLogger(RequestRecorder.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final boolean enabled;
+    private final Path file;
+    private final int maxBodyBytes;
+    private final long maxFileBytes;
+    private final BlockingQueue<Capture> queue;
+    private final Anonymizer anonymizer;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private Thread writer;
+    private volatile boolean running = true;
+
+    public RequestRecorder(ObjectMapper mapper,
+                           @Value("${veterinary.recording.enabled:false}") boolean enabled,
+                           @Value("${veterinary.recording.file:data/recordings/requests.vrec}") String file,
+                           @Value("${veterinary.recording.max-body-bytes:65536}") int maxBodyBytes,
+                           @Value("${veterinary.recording.max-file-bytes:268435456}") long maxFileBytes,
+                           @Value("${veterinary.recording.queue-size:10000}") int queueSize) throws IOException {
+        this.enabled = enabled;
+        this.file = enabled ? createFile(Paths.get(file)) : Paths.get(file);
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxFileBytes = maxFileBytes;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.anonymizer = new Anonymizer(mapper);
+        if (enabled) {
+            DataOutputStream out = open();
+            writer = new Thread(() -> drain(out), "request-recorder");
+            writer.setDaemon(true);
+            writer.setContextClassLoader(RequestRecorder.class.getClassLoader());
+            writer.start();
+            log.info("Grabando peticiones en {}", this.file.toAbsolutePath());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Encola una petición terminada. {@code arrivalNanos} es el {@code System.nanoTime()} de llegada
+     * y {@code body} null si no se guarda el cuerpo.
+     */
+    void record(long arrivalNanos, String method, String path, String query, String contentType,
+                String role, String email, byte[] body, int status) {
+        long offsetMicros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(arrivalNanos - startNanos));
+        if (!queue.offer(new Capture(offsetMicros, method, path, query, contentType, role, email, body, status))) {
+            dropped.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", file.toString());
+        stats.put("recorded", recorded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", queue.size());
+        return stats;
+    }
+
+    /**
+     * Crea (sin abrir) el fichero de esta grabación: el nombre configurado con la hora antes de la
+     * extensión y, si ya existe uno con esa hora, un sufijo numérico.
+     */
+    private static Path createFile(Path configured) throws IOException {
+        Path parent = configured.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        String name = configured.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = (dot > 0 ? name.substring(0, dot) : name) + "-" + LocalDateTime.now().format(FILE_TIMESTAMP);
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int attempt = 0; ; attempt++) {
+            Path candidate = parent.resolve(stem + (attempt == 0 ? "" : "-" + attempt) + extension);
+            try {
+                return Files.createFile(candidate);
+            } catch (FileAlreadyExistsException e) {
+                // Otro arranque en el mismo segundo: se prueba el siguiente sufijo
+            }
+        }
+    }
+
+    private DataOutputStream open() throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        RequestLogFormat.writeHeader(out, System.currentTimeMillis());
+        return out;
+    }
+
+    private void drain(DataOutputStream out) {
+        List<Capture> batch = new ArrayList<>();
+        try (out) {
+            while (running || !queue.isEmpty()) {
+                Capture first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (Capture capture : batch) {
+                    if (out.size() >= maxFileBytes) {
+                        dropped.increment();
+                        continue;
+                    }
+                    RequestLogFormat.write(out, capture.anonymize(anonymizer));
+                    recorded.increment();
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Grabación de peticiones detenida: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Petición tal como llega del filtro, aún sin anonimizar.
+     */
+    private static final class Capture {
+        private final long offsetMicros;
+        private final String method;
+        private final String path;
+        private final String query;
+        private final String contentType;
+        private final String role;
+        private final String email;
+        private final byte[] body;
+        private final int status;
+
+        Capture(long offsetMicros, String method, String path, String query, String contentType,
+                String role, String email, byte[] body, int status) {
+            this.offsetMicros = offsetMicros;
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.contentType = contentType;
+            this.role = role;
+            this.email = email;
+            this.body = body;
+            this.status = status;
+        }
+
+        RecordedRequest anonymize(Anonymizer anonymizer) {
+            byte[] cleanBody = null;
+            String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+            if (body != null && type.startsWith("application/x-ndjson")) {
+                cleanBody = anonymizer.ndjson(body);
+            } else if (body != null && type.contains("json")) {
+                cleanBody = anonymizer.json(body);
+            } else if (body != null && body.length == 0) {
+                cleanBody = body;
+            }
+            return new RecordedRequest(offsetMicros, method, path, anonymizer.replaceEmails(query), contentType, role,
+                    anonymizer.email(email), cleanBody, status);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.veterinary.web.recording;
+
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Pasa a {@link RequestRecorder} cada petición a {@code /api/**} cuando la grabación está activa.
+ * El cuerpo se guarda tal como lo leyó la aplicación, hasta {@code max-body-bytes}; si es más
+ * grande no se guarda. Se graba la identidad (email y rol), tomada del token de sesión o de las
+ * cabeceras {@code X-User-Email}/{@code X-User-Role}, y no el token, que no sería válido en otra
+ * instancia: {@code RequestReplay} emite uno nuevo para cada identidad al reproducir.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestRecordingFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    private final RequestRecorder recorder;
+    private final SessionTokenService sessionTokens;
+
+    public RequestRecordingFilter(RequestRecorder recorder, SessionTokenService sessionTokens) {
+        this.recorder = recorder;
+        this.sessionTokens = sessionTokens;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !recorder.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long arrival = System.nanoTime();
+        ContentCachingRequestWrapper wrapper = new ContentCachingRequestWrapper(request, recorder.getMaxBodyBytes());
+        try {
+            chain.doFilter(wrapper, response);
+        } finally {
+            byte[] body = wrapper.getContentAsByteArray();
+            boolean truncated = request.getContentLengthLong() > recorder.getMaxBodyBytes()
+                    || request.getContentLengthLong() < 0 && body.length >= recorder.getMaxBodyBytes();
+            String role = request.getHeader("X-User-Role");
+            String email = request.getHeader("X-User-Email");
+            String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+                Optional<SessionTokenService.Session> session = sessionTokens.verify(authorization.substring(BEARER.length()).trim());
+                if (session.isPresent()) {
+                    role = session.get().getRole();
+                    email = session.get().getEmail();
+                }
+            }
+            recorder.record(arrival, request.getMethod(), request.getRequestURI(), request.getQueryString(),
+                    request.getContentType(), role, email, truncated ? null : body, response.getStatus());
+        }
+    }
+}
@@ -1,34 +1,77 @@
 package com.veterinary.web.repository;
 
+import com.veterinary.web.metrics.RepositoryQueryEvent;
 import com.veterinary.web.model.Appointment;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public class AppointmentRepository {
     private final Map<String, Appointment> appointments = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    // versionSequence numera cada guardado; version cambia después de que el cambio sea visible,
+    // de modo que un ETag leído antes que los datos nunca corresponde a datos más antiguos
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    // Las escrituras comparten el lock de lectura; snapshot() toma el de escritura para excluirlas
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    // Índice secundario (veterinario, fecha) -> ids, usado por la validación de solapamiento
+    private final Map<String, Set<String>> idsBySlot = new ConcurrentHashMap<>();
+    private final Map<String, String> slotById = new ConcurrentHashMap<>();
+    private final List<LongConsumer> changeListeners = new CopyOnWriteArrayList<>();
+
+    public static String slotKey(String veterinarian, String date) {
+        if (veterinarian == null || date == null) {
+            return null;
+        }
+        return veterinarian + '\u0000' + date;
+    }
 
     public List<Appointment> findByVeterinarianAndDate(String veterinarian, String date) {
-        return appointments.values().stream()
-                .filter(a -> veterinarian.equals(a.getVeterinarian()) && date.equals(a.getDate()))
-                .collect(Collectors.toList());
+        String key = slotKey(veterinarian, date);
+        Set<String> ids = key == null ? null : idsBySlot.get(key);
+        if (ids == null) {
+            return new ArrayList<>();
+        }
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("appointment", "findByVeterinarianAndDate");
+        List<Appointment> result = new ArrayList<>(ids.size());
+        int scanned = 0;
+        for (String id : ids) {
+            scanned++;
+            Appointment a = appointments.get(id);
+            if (a != null && veterinarian.equals(a.getVeterinarian()) && date.equals(a.getDate())) {
+                result.add(a);
+            }
+        }
+        event.finish(scanned, result.size());
+        return result;
     }
 
     public List<Appointment> findByPetId(String petId) {
-        return appointments.values().stream()
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("appointment", "findByPetId");
+        List<Appointment> result = appointments.values().stream()
                 .filter(a -> petId.equals(a.getPetId()))
                 .collect(Collectors.toList());
+        event.finish(appointments.size(), result.size());
+        return result;
     }
 
     public List<Appointment> findByStatus(String status) {
-        return appointments.values().stream()
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("appointment", "findByStatus");
+        List<Appointment> result = appointments.values().stream()
                 .filter(a -> status.equals(a.getStatus()))
                 .collect(Collectors.toList());
+        event.finish(appointments.size(), result.size());
+        return result;
     }
 
     public Appointment save(Appointment appointment) {
@@ -36,12 +79,140 @@ public class AppointmentRepository {
             appointment.setId(String.valueOf(idGenerator.getAndIncrement()));
         }
         appointment.setUpdatedAt(System.currentTimeMillis());
-        appointments.put(appointment.getId(), appointment);
+        appointment.setVersion(versionSequence.incrementAndGet());
+        long changed;
+        snapshotLock.readLock().lock();
+        try {
+            appointments.put(appointment.getId(), appointment);
+            String key = reindex(appointment);
+            if (key != null) {
+                addToSlot(key, Collections.singletonList(appointment.getId()));
+            }
+            changed = version.incrementAndGet();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        publish(changed);
         return appointment;
     }
 
+    /**
+     * Guarda un lote de citas actualizando el índice por (veterinario, fecha)
+     * una sola vez por grupo en lugar de una vez por cita.
+     */
+    public List<Appointment> saveAll(Collection<Appointment> batch) {
+        long now = System.currentTimeMillis();
+        long batchVersion = versionSequence.incrementAndGet();
+        Map<String, List<String>> added = new HashMap<>();
+        List<Appointment> saved = new ArrayList<>(batch.size());
+        long changed;
+        snapshotLock.readLock().lock();
+        try {
+            for (Appointment appointment : batch) {
+                if (appointment.getId() == null) {
+                    appointment.setId(String.valueOf(idGenerator.getAndIncrement()));
+                }
+                appointment.setUpdatedAt(now);
+                appointment.setVersion(batchVersion);
+                appointments.put(appointment.getId(), appointment);
+                String key = reindex(appointment);
+                if (key != null) {
+                    added.computeIfAbsent(key, k -> new ArrayList<>()).add(appointment.getId());
+                }
+                saved.add(appointment);
+            }
+            added.forEach(this::addToSlot);
+            changed = version.incrementAndGet();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        publish(changed);
+        return saved;
+    }
+
+    /**
+     * Versión del repositorio; cambia con cada alta, modificación o borrado.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Registra un oyente que recibe la nueva versión tras cada cambio, fuera de los locks del repositorio.
+     */
+    public void addChangeListener(LongConsumer listener) {
+        changeListeners.add(listener);
+    }
+
+    private void publish(long changed) {
+        for (LongConsumer listener : changeListeners) {
+            listener.accept(changed);
+        }
+    }
+
+    public int count() {
+        return appointments.size();
+    }
+
+    /**
+     * Huecos (veterinario, fecha) distintos en el índice secundario.
+     */
+    public int indexedSlots() {
+        return idsBySlot.size();
+    }
+
+    /**
+     * Citas presentes en el índice secundario.
+     */
+    public int indexedAppointments() {
+        return slotById.size();
+    }
+
+    /**
+     * Vista de solo lectura del índice (veterinario, fecha) -> ids, para estimar su tamaño.
+     */
+    public Map<String, Set<String>> indexedSlotIds() {
+        return Collections.unmodifiableMap(idsBySlot);
+    }
+
+    /**
+     * Vista de solo lectura del índice inverso id -> (veterinario, fecha).
+     */
+    public Map<String, String> indexedSlotKeys() {
+        return Collections.unmodifiableMap(slotById);
+    }
+
     public List<Appointment> findAll() {
-        return new ArrayList<>(appointments.values());
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("appointment", "findAll");
+        List<Appointment> result = new ArrayList<>(appointments.values());
+        event.finish(result.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Recorre las citas directamente sobre el mapa, sin copiarlas. Es débilmente
+     * consistente: puede reflejar o no las escrituras concurrentes al recorrido.
+     */
+    public Stream<Appointment> streamAll() {
+        return appointments.values().stream();
+    }
+
+    /**
+     * Copia las referencias a las citas en un instante en que no hay escrituras en curso.
+     * Las instancias guardadas no se modifican después ({@code AppointmentService} guarda
+     * siempre copias, también en las altas), por lo que el resultado es una vista consistente.
+     */
+    public List<Appointment> snapshot() {
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("appointment", "snapshot");
+        List<Appointment> result;
+        snapshotLock.writeLock().lock();
+        try {
+            result = Arrays.asList(appointments.values().toArray(new Appointment[0]));
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        event.finish(result.size(), result.size());
+        return result;
     }
 
     public Optional<Appointment> findById(String id) {
@@ -49,6 +220,68 @@ public class AppointmentRepository {
     }
 
     public void deleteById(String id) {
-        appointments.remove(id);
+        long changed = 0;
+        snapshotLock.readLock().lock();
+        try {
+            String key = slotById.remove(id);
+            if (key != null) {
+                removeFromSlot(key, id);
+            }
+            if (appointments.remove(id) != null) {
+                changed = version.incrementAndGet();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (changed != 0) {
+            publish(changed);
+        }
+    }
+
+    public void deleteAll(Collection<String> ids) {
+        long changed;
+        snapshotLock.readLock().lock();
+        try {
+            for (String id : ids) {
+                String key = slotById.remove(id);
+                if (key != null) {
+                    removeFromSlot(key, id);
+                }
+                appointments.remove(id);
+            }
+            changed = version.incrementAndGet();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        publish(changed);
+    }
+
+    /**
+     * Registra el nuevo slot de la cita y la retira del anterior si cambió.
+     * Devuelve el slot al que todavía hay que añadirla, o null si no hay cambios.
+     */
+    private String reindex(Appointment appointment) {
+        String id = appointment.getId();
+        String key = slotKey(appointment.getVeterinarian(), appointment.getDate());
+        String previous = key == null ? slotById.remove(id) : slotById.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            removeFromSlot(previous, id);
+        }
+        return key != null && !key.equals(previous) ? key : null;
+    }
+
+    private void addToSlot(String key, List<String> ids) {
+        idsBySlot.compute(key, (k, set) -> {
+            Set<String> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.addAll(ids);
+            return target;
+        });
+    }
+
+    private void removeFromSlot(String key, String id) {
+        idsBySlot.computeIfPresent(key, (k, set) -> {
+            set.remove(id);
+            return set.isEmpty() ? null : set;
+        });
     }
-}
\ No newline at end of file
+}
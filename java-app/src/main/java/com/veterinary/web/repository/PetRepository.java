@@ -1,34 +1,53 @@
 package com.veterinary.web.repository;
 
+import com.veterinary.web.metrics.RepositoryQueryEvent;
 import com.veterinary.web.model.Pet;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public class PetRepository {
     private final Map<String, Pet> pets = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    // versionSequence numera cada guardado; version cambia después de que el cambio sea visible,
+    // de modo que un ETag leído antes que los datos nunca corresponde a datos más antiguos
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    // Las escrituras comparten el lock de lectura; snapshot() toma el de escritura para excluirlas
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
 
     public List<Pet> findByOwnerEmail(String ownerEmail) {
-        return pets.values().stream()
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("pet", "findByOwnerEmail");
+        List<Pet> result = pets.values().stream()
                 .filter(p -> ownerEmail.equals(p.getOwnerEmail()))
                 .collect(Collectors.toList());
+        event.finish(pets.size(), result.size());
+        return result;
     }
 
     public List<Pet> findByType(String type) {
-        return pets.values().stream()
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("pet", "findByType");
+        List<Pet> result = pets.values().stream()
                 .filter(p -> type.equals(p.getType()))
                 .collect(Collectors.toList());
+        event.finish(pets.size(), result.size());
+        return result;
     }
 
     public List<Pet> findByFamilyType(String familyType) {
-        return pets.values().stream()
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("pet", "findByFamilyType");
+        List<Pet> result = pets.values().stream()
                 .filter(p -> familyType.equals(p.getFamilyType()))
                 .collect(Collectors.toList());
+        event.finish(pets.size(), result.size());
+        return result;
     }
 
     public Pet save(Pet pet) {
@@ -36,12 +55,79 @@ public class PetRepository {
             pet.setId(String.valueOf(idGenerator.getAndIncrement()));
         }
         pet.setUpdatedAt(System.currentTimeMillis());
-        pets.put(pet.getId(), pet);
+        pet.setVersion(versionSequence.incrementAndGet());
+        snapshotLock.readLock().lock();
+        try {
+            pets.put(pet.getId(), pet);
+            version.incrementAndGet();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
         return pet;
     }
 
+    public List<Pet> saveAll(Collection<Pet> batch) {
+        long now = System.currentTimeMillis();
+        long batchVersion = versionSequence.incrementAndGet();
+        List<Pet> saved = new ArrayList<>(batch.size());
+        snapshotLock.readLock().lock();
+        try {
+            for (Pet pet : batch) {
+                if (pet.getId() == null) {
+                    pet.setId(String.valueOf(idGenerator.getAndIncrement()));
+                }
+                pet.setUpdatedAt(now);
+                pet.setVersion(batchVersion);
+                pets.put(pet.getId(), pet);
+                saved.add(pet);
+            }
+            version.incrementAndGet();
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        return saved;
+    }
+
+    /**
+     * Versión del repositorio; cambia con cada alta, modificación o borrado.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public int count() {
+        return pets.size();
+    }
+
     public List<Pet> findAll() {
-        return new ArrayList<>(pets.values());
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("pet", "findAll");
+        List<Pet> result = new ArrayList<>(pets.values());
+        event.finish(result.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Recorre las mascotas directamente sobre el mapa, sin copiarlas. Es débilmente
+     * consistente: puede reflejar o no las escrituras concurrentes al recorrido.
+     */
+    public Stream<Pet> streamAll() {
+        return pets.values().stream();
+    }
+
+    /**
+     * Copia las referencias a las mascotas en un instante en que no hay escrituras en curso.
+     */
+    public List<Pet> snapshot() {
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("pet", "snapshot");
+        List<Pet> result;
+        snapshotLock.writeLock().lock();
+        try {
+            result = Arrays.asList(pets.values().toArray(new Pet[0]));
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        event.finish(result.size(), result.size());
+        return result;
     }
 
     public Optional<Pet> findById(String id) {
@@ -49,6 +135,13 @@ public class PetRepository {
     }
 
     public void deleteById(String id) {
-        pets.remove(id);
+        snapshotLock.readLock().lock();
+        try {
+            if (pets.remove(id) != null) {
+                version.incrementAndGet();
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
     }
 }
\ No newline at end of file
@@ -1,16 +1,19 @@
 package com.veterinary.web.repository;
 
+import com.veterinary.web.metrics.RepositoryQueryEvent;
 import com.veterinary.web.model.User;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Repository
 public class UserRepository {
     private final Map<String, User> users = new ConcurrentHashMap<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
+    // Los ids 1 y 2 son de los usuarios precargados
+    private final AtomicLong idGenerator = new AtomicLong(3);
 
     public UserRepository() {
         // Usuarios de prueba precargados
@@ -47,14 +50,36 @@ public class UserRepository {
         return user;
     }
 
+    public int count() {
+        return users.size();
+    }
+
     public List<User> findAll() {
-        return new ArrayList<>(users.values());
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("user", "findAll");
+        List<User> result = new ArrayList<>(users.values());
+        event.finish(result.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Recorre los usuarios directamente sobre el mapa, sin copiarlos.
+     */
+    public Stream<User> streamAll() {
+        return users.values().stream();
     }
 
     public Optional<User> findById(String id) {
-        return users.values().stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst();
+        RepositoryQueryEvent event = RepositoryQueryEvent.start("user", "findById");
+        int scanned = 0;
+        for (User user : users.values()) {
+            scanned++;
+            if (user.getId().equals(id)) {
+                event.finish(scanned, 1);
+                return Optional.of(user);
+            }
+        }
+        event.finish(scanned, 0);
+        return Optional.empty();
     }
 
     public void deleteById(String id) {
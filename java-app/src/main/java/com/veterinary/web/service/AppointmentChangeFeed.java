@@ -0,0 +1,74 @@
+package com.veterinary.web.service;
+
+import com.veterinary.web.repository.AppointmentRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Esperas de long-poll sobre la versión del repositorio de citas. Cada suscripción se avisa una
+ * sola vez, con la primera versión posterior a la que ya conocía el cliente, y se retira al
+ * cancelarla (por ejemplo al vencer el timeout), así que las esperas abandonadas no se acumulan.
+ */
+@Service
+public class AppointmentChangeFeed {
+    private final AppointmentRepository appointmentRepository;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public AppointmentChangeFeed(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+        appointmentRepository.addChangeListener(this::publish);
+    }
+
+    /**
+     * Avisa a {@code onChange} cuando la versión supere {@code since}; si ya la supera, en el acto.
+     */
+    public Subscription subscribe(long since, LongConsumer onChange) {
+        Subscription subscription = new Subscription(onChange);
+        subscriptions.add(subscription);
+        // Se comprueba después de registrarse para no perder un cambio que llegue entre medias
+        long current = appointmentRepository.version();
+        if (current > since) {
+            subscription.fire(current);
+        }
+        return subscription;
+    }
+
+    public long version() {
+        return appointmentRepository.version();
+    }
+
+    public int getWaiting() {
+        return subscriptions.size();
+    }
+
+    private void publish(long version) {
+        for (Subscription subscription : subscriptions) {
+            subscription.fire(version);
+        }
+    }
+
+    public final class Subscription {
+        private final LongConsumer onChange;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Subscription(LongConsumer onChange) {
+            this.onChange = onChange;
+        }
+
+        public void cancel() {
+            done.set(true);
+            subscriptions.remove(this);
+        }
+
+        private void fire(long version) {
+            if (done.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                onChange.accept(version);
+            }
+        }
+    }
+}
@@ -1,75 +1,426 @@
 package com.veterinary.web.service;
 
+import com.veterinary.web.metrics.BookingConflictEvent;
 import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.AppointmentBatchRequest;
+import com.veterinary.web.model.AppointmentBatchResult;
 import com.veterinary.web.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AppointmentService {
+    private static final String CONFLICT = "Conflicto: el veterinario ya tiene una cita en ese horario";
+    // En el registro global para que también funcionen al instanciar el servicio fuera de Spring (benchmarks)
+    private static final Timer LOCK_WAIT = Timer.builder("veterinary.booking.lock.wait")
+            .description("Espera hasta obtener los locks de los huecos (veterinario, fecha)")
+            .register(Metrics.globalRegistry);
+    private static final Timer CONFLICT_FREE = conflictTimer("free");
+    private static final Timer CONFLICT_FOUND = conflictTimer("conflict");
+
     private final AppointmentRepository appointmentRepository;
+    private final SlotLocks slotLocks = new SlotLocks(64, LOCK_WAIT);
 
     public AppointmentService(AppointmentRepository appointmentRepository) {
         this.appointmentRepository = appointmentRepository;
     }
 
     public Appointment create(Appointment appointment) {
-        // Validar solapamiento: mismo veterinario, misma fecha y hora
-        List<Appointment> sameDay = appointmentRepository.findByVeterinarianAndDate(appointment.getVeterinarian(), appointment.getDate());
-        boolean overlap = sameDay.stream().anyMatch(a -> a.getTime().equals(appointment.getTime()) && !"cancelada".equalsIgnoreCase(a.getStatus()));
-        if (overlap) {
-            throw new IllegalArgumentException("Conflicto: el veterinario ya tiene una cita en ese horario");
+        BitSet stripes = slotLocks.stripesFor(appointment.getVeterinarian(), appointment.getDate(), new BitSet());
+        return slotLocks.withLocks(stripes, () -> {
+            // Validar solapamiento: mismo veterinario, misma fecha y hora
+            if (hasOverlap(appointment.getVeterinarian(), appointment.getDate(), appointment.getTime(), null)) {
+                throw new IllegalArgumentException(CONFLICT);
+            }
+            return appointmentRepository.save(newFrom(appointment, System.currentTimeMillis()));
+        });
+    }
+
+    /**
+     * Crea un lote de citas validando y comprobando solapamientos una vez por
+     * grupo (veterinario, fecha), incluidos los solapamientos dentro del propio lote.
+     *
+     * @return errores por posición del lote; las posiciones ausentes se guardaron
+     */
+    public Map<Integer, String> createAll(List<Appointment> batch) {
+        Map<Integer, String> failures = new HashMap<>();
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        BitSet stripes = new BitSet();
+        for (int i = 0; i < batch.size(); i++) {
+            Appointment a = batch.get(i);
+            if (isBlank(a.getPetId()) || isBlank(a.getVeterinarian()) || isBlank(a.getDate()) || isBlank(a.getTime())) {
+                failures.put(i, "Campos requeridos: petId, veterinarian, date, time");
+                continue;
+            }
+            groups.computeIfAbsent(AppointmentRepository.slotKey(a.getVeterinarian(), a.getDate()), k -> new ArrayList<>()).add(i);
+            slotLocks.stripesFor(a.getVeterinarian(), a.getDate(), stripes);
         }
-        appointment.setStatus(appointment.getStatus() == null ? "pendiente" : appointment.getStatus());
+        return slotLocks.withLocks(stripes, () -> {
+            long now = System.currentTimeMillis();
+            List<Appointment> accepted = new ArrayList<>(batch.size() - failures.size());
+            for (List<Integer> group : groups.values()) {
+                Appointment first = batch.get(group.get(0));
+                Set<String> taken = new HashSet<>();
+                for (Appointment existing : appointmentRepository.findByVeterinarianAndDate(first.getVeterinarian(), first.getDate())) {
+                    if (!isCancelled(existing)) {
+                        taken.add(existing.getTime());
+                    }
+                }
+                for (int index : group) {
+                    Appointment a = batch.get(index);
+                    if (taken.contains(a.getTime())) {
+                        failures.put(index, CONFLICT);
+                        continue;
+                    }
+                    if (!isCancelled(a)) {
+                        taken.add(a.getTime());
+                    }
+                    accepted.add(newFrom(a, now));
+                }
+            }
+            appointmentRepository.saveAll(accepted);
+            return failures;
+        });
+    }
+
+    /**
+     * Modifica una cita bajo los locks de su hueco actual y del de destino. La cita se vuelve a
+     * leer con los locks tomados; si otro hilo la movió entretanto, se repite con los huecos nuevos.
+     * Se comprueba el solapamiento si cambia de hueco o si deja de estar cancelada.
+     */
+    public Appointment update(String id, Appointment updates) {
+        while (true) {
+            Appointment current = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Cita no encontrada"));
+            BitSet stripes = slotLocks.stripesFor(current.getVeterinarian(), current.getDate(), new BitSet());
+            slotLocks.stripesFor(target(updates.getVeterinarian(), current.getVeterinarian()),
+                    target(updates.getDate(), current.getDate()), stripes);
+            Appointment saved = slotLocks.withLocks(stripes, () -> {
+                Appointment latest = appointmentRepository.findById(id)
+                        .orElseThrow(() -> new IllegalArgumentException("Cita no encontrada"));
+                if (latest.getVersion() != current.getVersion()) {
+                    return null;
+                }
+                Appointment a = latest.copy();
+                a.setVeterinarian(target(updates.getVeterinarian(), latest.getVeterinarian()));
+                a.setDate(target(updates.getDate(), latest.getDate()));
+                a.setTime(target(updates.getTime(), latest.getTime()));
+                applyFields(a, updates);
+                boolean moved = !Objects.equals(a.getVeterinarian(), latest.getVeterinarian())
+                        || !Objects.equals(a.getDate(), latest.getDate()) || !Objects.equals(a.getTime(), latest.getTime());
+                boolean reactivated = isCancelled(latest) && !isCancelled(a);
+                if ((moved || reactivated) && hasOverlap(a.getVeterinarian(), a.getDate(), a.getTime(), a.getId())) {
+                    throw new IllegalArgumentException(CONFLICT);
+                }
+                a.setUpdatedAt(System.currentTimeMillis());
+                return appointmentRepository.save(a);
+            });
+            if (saved != null) {
+                return saved;
+            }
+        }
+    }
+
+    /**
+     * Aplica un lote de operaciones ('create', 'update', 'status', 'delete') en orden.
+     * Las citas de cada (veterinario, fecha) se cargan una sola vez para las comprobaciones
+     * de solapamiento y los cambios se guardan al final en bloque. Con {@code atomic}
+     * no se guarda nada si alguna operación falla.
+     */
+    public AppointmentBatchResult applyBatch(List<AppointmentBatchRequest.Operation> operations, boolean atomic) {
+        while (true) {
+            BitSet stripes = batchStripes(operations);
+            // Si alguna cita cambió de (veterinario, fecha) antes de tomar los locks, se recalculan
+            AppointmentBatchResult result = slotLocks.withLocks(stripes, () ->
+                    stripes.equals(batchStripes(operations)) ? applyBatchLocked(operations, atomic) : null);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    public long version() { return appointmentRepository.version(); }
+
+    /**
+     * Elimina una cita bajo el lock de su hueco, el mismo que toma {@link #update}: así una
+     * modificación que ya leyó la cita no puede volver a guardarla después de borrada. Si otro
+     * hilo la cambió antes de tomar el lock, se repite con los datos nuevos.
+     */
+    public void delete(String id) {
+        while (true) {
+            Appointment current = appointmentRepository.findById(id).orElse(null);
+            if (current == null) {
+                return;
+            }
+            BitSet stripes = slotLocks.stripesFor(current.getVeterinarian(), current.getDate(), new BitSet());
+            boolean done = slotLocks.withLocks(stripes, () -> {
+                Appointment latest = appointmentRepository.findById(id).orElse(null);
+                if (latest != null && latest.getVersion() != current.getVersion()) {
+                    return false;
+                }
+                appointmentRepository.deleteById(id);
+                return true;
+            });
+            if (done) {
+                return;
+            }
+        }
+    }
+
+    public Optional<Appointment> get(String id) { return appointmentRepository.findById(id); }
+
+    public List<Appointment> list() { return appointmentRepository.findAll(); }
+
+    public List<Appointment> listByPet(String petId) { return appointmentRepository.findByPetId(petId); }
+
+    private BitSet batchStripes(List<AppointmentBatchRequest.Operation> operations) {
+        BitSet stripes = new BitSet();
+        for (AppointmentBatchRequest.Operation op : operations) {
+            Appointment current = op.getId() != null ? appointmentRepository.findById(op.getId()).orElse(null) : null;
+            Appointment target = op.getAppointment();
+            if (current != null) {
+                slotLocks.stripesFor(current.getVeterinarian(), current.getDate(), stripes);
+            }
+            if (target != null) {
+                String vet = target.getVeterinarian() != null || current == null ? target.getVeterinarian() : current.getVeterinarian();
+                String date = target.getDate() != null || current == null ? target.getDate() : current.getDate();
+                slotLocks.stripesFor(vet, date, stripes);
+            }
+        }
+        return stripes;
+    }
+
+    private AppointmentBatchResult applyBatchLocked(List<AppointmentBatchRequest.Operation> operations, boolean atomic) {
+        AppointmentBatchResult result = new AppointmentBatchResult();
+        Map<String, SlotOccupancy> slots = new HashMap<>();
+        Map<String, Appointment> staged = new LinkedHashMap<>();
+        Set<String> deleted = new LinkedHashSet<>();
+        List<Appointment> created = new ArrayList<>();
         long now = System.currentTimeMillis();
-        appointment.setCreatedAt(now);
-        appointment.setUpdatedAt(now);
-        if (appointment.getHistory() == null) {
-            appointment.setHistory(new java.util.ArrayList<>());
+        for (int i = 0; i < operations.size(); i++) {
+            AppointmentBatchRequest.Operation op = operations.get(i);
+            String kind = op.getOp() == null ? "" : op.getOp().toLowerCase(Locale.ROOT);
+            Appointment current = null;
+            if (op.getId() != null && !deleted.contains(op.getId())) {
+                current = staged.containsKey(op.getId()) ? staged.get(op.getId()) : appointmentRepository.findById(op.getId()).orElse(null);
+            }
+            AppointmentBatchResult.Item item;
+            switch (kind) {
+                case "create":
+                    item = batchCreate(i, op.getAppointment(), slots, created, now);
+                    break;
+                case "update":
+                case "status":
+                case "delete":
+                    if (current == null) {
+                        item = new AppointmentBatchResult.Item(i, 404, null, "Cita no encontrada");
+                    } else if (kind.equals("delete")) {
+                        release(slots, current);
+                        staged.remove(current.getId());
+                        deleted.add(current.getId());
+                        item = new AppointmentBatchResult.Item(i, 204, null, null);
+                    } else {
+                        item = batchUpdate(i, kind, op, current, slots, staged, now);
+                    }
+                    break;
+                default:
+                    item = new AppointmentBatchResult.Item(i, 400, null, "Operación no soportada: " + op.getOp());
+            }
+            result.getResults().add(item);
+            if (item.isOk()) {
+                result.setSucceeded(result.getSucceeded() + 1);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
         }
-        appointment.getHistory().add("creada:" + now);
-        return appointmentRepository.save(appointment);
+        if (atomic && result.getFailed() > 0) {
+            for (AppointmentBatchResult.Item item : result.getResults()) {
+                if (item.isOk()) {
+                    item.setStatus(424);
+                    item.setAppointment(null);
+                    item.setError("No aplicada: otra operación del lote falló");
+                }
+            }
+            result.setFailed(result.getResults().size());
+            result.setSucceeded(0);
+            return result;
+        }
+        appointmentRepository.deleteAll(deleted);
+        created.addAll(staged.values());
+        appointmentRepository.saveAll(created);
+        result.setApplied(true);
+        return result;
     }
 
-    public Appointment update(String id, Appointment updates) {
-        Optional<Appointment> found = appointmentRepository.findById(id);
-        if (!found.isPresent()) {
-            throw new IllegalArgumentException("Cita no encontrada");
-        }
-        Appointment a = found.get();
-        boolean veterinarianChanged = updates.getVeterinarian() != null && !updates.getVeterinarian().equals(a.getVeterinarian());
-        boolean dateChanged = updates.getDate() != null && !updates.getDate().equals(a.getDate());
-        boolean timeChanged = updates.getTime() != null && !updates.getTime().equals(a.getTime());
-        if (veterinarianChanged || dateChanged || timeChanged) {
-            String vet = updates.getVeterinarian() != null ? updates.getVeterinarian() : a.getVeterinarian();
-            String date = updates.getDate() != null ? updates.getDate() : a.getDate();
-            String time = updates.getTime() != null ? updates.getTime() : a.getTime();
-            List<Appointment> sameDay = appointmentRepository.findByVeterinarianAndDate(vet, date);
-            boolean overlap = sameDay.stream().anyMatch(ap -> ap.getTime().equals(time) && !ap.getId().equals(a.getId()) && !"cancelada".equalsIgnoreCase(ap.getStatus()));
-            if (overlap) {
-                throw new IllegalArgumentException("Conflicto: el veterinario ya tiene una cita en ese horario");
-            }
-            a.setVeterinarian(vet);
-            a.setDate(date);
-            a.setTime(time);
+    private AppointmentBatchResult.Item batchCreate(int index, Appointment appointment, Map<String, SlotOccupancy> slots,
+                                                    List<Appointment> created, long now) {
+        if (appointment == null || isBlank(appointment.getPetId()) || isBlank(appointment.getVeterinarian())
+                || isBlank(appointment.getDate()) || isBlank(appointment.getTime())) {
+            return new AppointmentBatchResult.Item(index, 400, null, "Campos requeridos: petId, veterinarian, date, time");
+        }
+        SlotOccupancy slot = occupancy(slots, appointment.getVeterinarian(), appointment.getDate());
+        if (slot.conflicts(appointment.getTime(), null)) {
+            return new AppointmentBatchResult.Item(index, 400, null, CONFLICT);
+        }
+        Appointment stored = newFrom(appointment, now);
+        if (!isCancelled(stored)) {
+            // Aún sin id: se reserva el horario con un identificador provisional
+            slot.add(stored.getTime(), "#" + index);
         }
+        created.add(stored);
+        return new AppointmentBatchResult.Item(index, 201, stored, null);
+    }
+
+    private AppointmentBatchResult.Item batchUpdate(int index, String kind, AppointmentBatchRequest.Operation op, Appointment current,
+                                                    Map<String, SlotOccupancy> slots, Map<String, Appointment> staged, long now) {
+        Appointment next = current.copy();
+        if (kind.equals("status")) {
+            if (isBlank(op.getStatus())) {
+                return new AppointmentBatchResult.Item(index, 400, null, "Estado requerido");
+            }
+            next.setStatus(op.getStatus());
+        } else {
+            Appointment updates = op.getAppointment();
+            if (updates == null) {
+                return new AppointmentBatchResult.Item(index, 400, null, "Datos de la cita requeridos");
+            }
+            String vet = updates.getVeterinarian() != null ? updates.getVeterinarian() : current.getVeterinarian();
+            String date = updates.getDate() != null ? updates.getDate() : current.getDate();
+            String time = updates.getTime() != null ? updates.getTime() : current.getTime();
+            boolean moved = !Objects.equals(vet, current.getVeterinarian()) || !Objects.equals(date, current.getDate())
+                    || !Objects.equals(time, current.getTime());
+            if (moved && occupancy(slots, vet, date).conflicts(time, current.getId())) {
+                return new AppointmentBatchResult.Item(index, 400, null, CONFLICT);
+            }
+            next.setVeterinarian(vet);
+            next.setDate(date);
+            next.setTime(time);
+            applyFields(next, updates);
+        }
+        // Reactivar una cita cancelada vuelve a ocupar su hueco
+        if (isCancelled(current) && !isCancelled(next) && next.getVeterinarian() != null && next.getDate() != null
+                && occupancy(slots, next.getVeterinarian(), next.getDate()).conflicts(next.getTime(), current.getId())) {
+            return new AppointmentBatchResult.Item(index, 400, null, CONFLICT);
+        }
+        next.setUpdatedAt(now);
+        release(slots, current);
+        if (!isCancelled(next) && next.getVeterinarian() != null && next.getDate() != null) {
+            occupancy(slots, next.getVeterinarian(), next.getDate()).add(next.getTime(), next.getId());
+        }
+        staged.put(next.getId(), next);
+        return new AppointmentBatchResult.Item(index, 200, next, null);
+    }
+
+    private void release(Map<String, SlotOccupancy> slots, Appointment current) {
+        if (!isCancelled(current) && current.getVeterinarian() != null && current.getDate() != null) {
+            occupancy(slots, current.getVeterinarian(), current.getDate()).remove(current.getTime(), current.getId());
+        }
+    }
+
+    private SlotOccupancy occupancy(Map<String, SlotOccupancy> slots, String veterinarian, String date) {
+        return slots.computeIfAbsent(AppointmentRepository.slotKey(veterinarian, date), k -> {
+            SlotOccupancy slot = new SlotOccupancy();
+            for (Appointment a : appointmentRepository.findByVeterinarianAndDate(veterinarian, date)) {
+                if (!isCancelled(a)) {
+                    slot.add(a.getTime(), a.getId());
+                }
+            }
+            return slot;
+        });
+    }
+
+    private static String target(String requested, String current) {
+        return requested != null ? requested : current;
+    }
+
+    private static void applyFields(Appointment a, Appointment updates) {
         if (updates.getReason() != null) a.setReason(updates.getReason());
         if (updates.getDescription() != null) a.setDescription(updates.getDescription());
         if (updates.getPriority() != null) a.setPriority(updates.getPriority());
         if (updates.getType() != null) a.setType(updates.getType());
         if (updates.getStatus() != null) a.setStatus(updates.getStatus());
         if (updates.getHistory() != null) a.setHistory(updates.getHistory());
-        a.setUpdatedAt(System.currentTimeMillis());
-        return appointmentRepository.save(a);
     }
 
-    public void delete(String id) { appointmentRepository.deleteById(id); }
+    private boolean hasOverlap(String veterinarian, String date, String time, String excludeId) {
+        BookingConflictEvent event = BookingConflictEvent.start();
+        long start = System.nanoTime();
+        boolean overlap = false;
+        List<Appointment> candidates = appointmentRepository.findByVeterinarianAndDate(veterinarian, date);
+        for (Appointment a : candidates) {
+            if (Objects.equals(a.getTime(), time) && !a.getId().equals(excludeId) && !isCancelled(a)) {
+                overlap = true;
+                break;
+            }
+        }
+        (overlap ? CONFLICT_FOUND : CONFLICT_FREE).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        event.finish(veterinarian, date, time, candidates.size(), overlap);
+        return overlap;
+    }
 
-    public Optional<Appointment> get(String id) { return appointmentRepository.findById(id); }
+    private static Timer conflictTimer(String outcome) {
+        return Timer.builder("veterinary.booking.conflict.check")
+                .description("Comprobación de solapamiento de una cita")
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
 
-    public List<Appointment> list() { return appointmentRepository.findAll(); }
+    /**
+     * Copia de una cita nueva lista para guardar. El repositorio nunca comparte la instancia
+     * con el llamador, así que nadie puede modificar una cita ya guardada.
+     */
+    private static Appointment newFrom(Appointment source, long now) {
+        Appointment appointment = source.copy();
+        appointment.setStatus(appointment.getStatus() == null ? "pendiente" : appointment.getStatus());
+        appointment.setCreatedAt(now);
+        appointment.setUpdatedAt(now);
+        if (appointment.getHistory() == null) {
+            appointment.setHistory(new ArrayList<>());
+        }
+        appointment.getHistory().add("creada:" + now);
+        return appointment;
+    }
 
-    public List<Appointment> listByPet(String petId) { return appointmentRepository.findByPetId(petId); }
-}
\ No newline at end of file
+    private static boolean isCancelled(Appointment a) {
+        return "cancelada".equalsIgnoreCase(a.getStatus());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Horarios ocupados (no cancelados) de un (veterinario, fecha) durante un lote.
+     */
+    private static final class SlotOccupancy {
+        private final Map<String, Set<String>> idsByTime = new HashMap<>();
+
+        boolean conflicts(String time, String excludeId) {
+            Set<String> ids = idsByTime.get(time);
+            if (ids == null) {
+                return false;
+            }
+            for (String id : ids) {
+                if (!id.equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(String time, String id) {
+            idsByTime.computeIfAbsent(time, k -> new HashSet<>()).add(id);
+        }
+
+        void remove(String time, String id) {
+            Set<String> ids = idsByTime.get(time);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+}
@@ -2,32 +2,104 @@ package com.veterinary.web.service;
 
 import com.veterinary.web.model.User;
 import com.veterinary.web.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Registro y login. El hash de contraseñas es deliberadamente lento, así que se calcula en un
+ * pool propio de {@code hash-threads} hilos con una cola de {@code hash-queue} tareas: los hilos
+ * de Tomcat quedan libres mientras tanto y, si la cola está llena, la petición se rechaza al
+ * instante con {@link RejectedExecutionException} en lugar de acumular esperas. Una avalancha de
+ * logins solo ocupa ese pool y el resto de la API sigue atendiéndose.
+ */
 @Service
 public class AuthService {
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final ThreadPoolExecutor hashExecutor;
+    // Hash de referencia para que un email inexistente cueste lo mismo que una contraseña errónea
+    private final String dummyHash;
 
-    public AuthService(UserRepository userRepository) {
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher,
+                       @Value("${veterinary.auth.hash-threads:2}") int hashThreads,
+                       @Value("${veterinary.auth.hash-queue:64}") int hashQueue) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.hashExecutor = new ThreadPoolExecutor(hashThreads, hashThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashQueue), new HashThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordHasher.hash("");
     }
 
-    public User register(User user) {
-        Optional<User> existing = userRepository.findByEmail(user.getEmail());
-        if (existing.isPresent()) {
-            throw new IllegalArgumentException("El correo ya está registrado");
-        }
-        user.setCreatedAt(System.currentTimeMillis());
-        return userRepository.save(user);
+    public CompletableFuture<User> register(User user) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                throw new IllegalArgumentException("La contraseña es obligatoria");
+            }
+            Optional<User> existing = userRepository.findByEmail(user.getEmail());
+            if (existing.isPresent()) {
+                throw new IllegalArgumentException("El correo ya está registrado");
+            }
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+            user.setCreatedAt(System.currentTimeMillis());
+            return userRepository.save(user);
+        }, hashExecutor);
+    }
+
+    /**
+     * Verifica las credenciales. Si el usuario aún tiene la contraseña en texto plano o con menos
+     * iteraciones de las configuradas, se guarda de nuevo con el hash actual.
+     */
+    public CompletableFuture<User> login(String email, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<User> existing = email == null ? Optional.empty() : userRepository.findByEmail(email);
+            if (!existing.isPresent()) {
+                passwordHasher.matches(password == null ? "" : password, dummyHash);
+                throw new IllegalArgumentException("Credenciales inválidas");
+            }
+            User user = existing.get();
+            if (!passwordHasher.matches(password, user.getPassword())) {
+                throw new IllegalArgumentException("Credenciales inválidas");
+            }
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                User upgraded = user.copy();
+                upgraded.setPassword(passwordHasher.hash(password));
+                return userRepository.save(upgraded);
+            }
+            return user;
+        }, hashExecutor);
+    }
+
+    public int getHashQueueSize() {
+        return hashExecutor.getQueue().size();
     }
 
-    public User login(String email, String password) {
-        Optional<User> existing = userRepository.findByEmail(email);
-        if (existing.isPresent() && password.equals(existing.get().getPassword())) {
-            return existing.get();
+    public int getActiveHashes() {
+        return hashExecutor.getActiveCount();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         }
-        throw new IllegalArgumentException("Credenciales inválidas");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package com.veterinary.web.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.ImportReport;
+import com.veterinary.web.model.Pet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Importación masiva de mascotas y citas desde NDJSON o CSV (con cabecera).
+ * El cuerpo se lee fila a fila y se aplica en lotes, sin cargar la subida completa en memoria.
+ * Solo crea registros: una fila con {@code id} se rechaza, porque guardarla sobrescribiría el
+ * registro existente con ese id.
+ */
+@Service
+public class BulkImportService {
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromContentType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv") ? CSV : NDJSON;
+        }
+    }
+
+    private static final String NOT_AN_OBJECT = "Cada línea debe ser un objeto JSON";
+    private static final String ID_NOT_ALLOWED = "La importación no admite el campo id: los ids los asigna el servidor";
+
+    private final PetService petService;
+    private final AppointmentService appointmentService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int batchSize;
+    private final int maxErrors;
+
+    public BulkImportService(PetService petService,
+                             AppointmentService appointmentService,
+                             ObjectMapper objectMapper,
+                             @Value("${veterinary.import.batch-size:1000}") int batchSize,
+                             @Value("${veterinary.import.max-errors:1000}") int maxErrors) {
+        this.petService = petService;
+        this.appointmentService = appointmentService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ImportReport importPets(InputStream body, Format format) throws IOException {
+        return importRows(body, format, Pet.class, Pet::getId, batch -> {
+            petService.createAll(batch);
+            return Collections.emptyMap();
+        });
+    }
+
+    public ImportReport importAppointments(InputStream body, Format format) throws IOException {
+        return importRows(body, format, Appointment.class, Appointment::getId, appointmentService::createAll);
+    }
+
+    private <T> ImportReport importRows(InputStream body, Format format, Class<T> type, Function<T, String> id,
+                                        Function<List<T>, Map<Integer, String>> sink) throws IOException {
+        Importer<T> importer = new Importer<>(id, sink);
+        if (format == Format.CSV) {
+            readCsv(body, type, importer);
+        } else {
+            readNdjson(body, type, importer);
+        }
+        importer.flush();
+        return importer.report;
+    }
+
+    private <T> void readNdjson(InputStream body, Class<T> type, Importer<T> importer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long row = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            // readValue devuelve null para la línea "null"; solo se aceptan objetos
+            if (!line.strip().startsWith("{")) {
+                importer.reject(row, NOT_AN_OBJECT);
+                continue;
+            }
+            try {
+                T value = reader.readValue(line);
+                if (value == null) {
+                    importer.reject(row, NOT_AN_OBJECT);
+                } else {
+                    importer.accept(row, value);
+                }
+            } catch (JsonProcessingException e) {
+                importer.reject(row, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private <T> void readCsv(InputStream body, Class<T> type, Importer<T> importer) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        long row = 0;
+        try (MappingIterator<Map<String, String>> records = csvMapper.readerFor(Map.class).with(schema)
+                .readValues(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    record = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    // Un CSV mal formado no permite resincronizar: se informa y se detiene la lectura
+                    importer.reject(row + 1, "CSV inválido: " + e.getOriginalMessage());
+                    break;
+                }
+                row++;
+                record.values().removeIf(v -> v == null || v.isEmpty());
+                try {
+                    importer.accept(row, objectMapper.convertValue(record, type));
+                } catch (IllegalArgumentException e) {
+                    Throwable cause = e.getCause();
+                    String message = cause instanceof JsonProcessingException
+                            ? ((JsonProcessingException) cause).getOriginalMessage() : e.getMessage();
+                    importer.reject(row, "Valor inválido: " + message);
+                }
+            }
+        }
+    }
+
+    private final class Importer<T> {
+        private final Function<T, String> id;
+        private final Function<List<T>, Map<Integer, String>> sink;
+        private final List<T> batch = new ArrayList<>(batchSize);
+        private final long[] rows = new long[batchSize];
+        private final ImportReport report = new ImportReport();
+
+        Importer(Function<T, String> id, Function<List<T>, Map<Integer, String>> sink) {
+            this.id = id;
+            this.sink = sink;
+        }
+
+        void accept(long row, T value) {
+            if (id.apply(value) != null) {
+                reject(row, ID_NOT_ALLOWED);
+                return;
+            }
+            rows[batch.size()] = row;
+            batch.add(value);
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String error) {
+            report.addProcessed(1);
+            report.addError(row, error, maxErrors);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<Integer, String> failures = sink.apply(batch);
+            for (Map.Entry<Integer, String> failure : new TreeMap<>(failures).entrySet()) {
+                report.addError(rows[failure.getKey()], failure.getValue(), maxErrors);
+            }
+            report.addProcessed(batch.size());
+            report.addImported(batch.size() - failures.size());
+            batch.clear();
+        }
+    }
+}
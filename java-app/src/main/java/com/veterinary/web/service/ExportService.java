@@ -0,0 +1,60 @@
+package com.veterinary.web.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.repository.PetRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación NDJSON escrita directamente sobre el stream de salida, una entidad por línea.
+ */
+@Service
+public class ExportService {
+    public enum Consistency { WEAK, SNAPSHOT }
+
+    private final PetRepository petRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(PetRepository petRepository, AppointmentRepository appointmentRepository, ObjectMapper objectMapper) {
+        this.petRepository = petRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportPets(OutputStream out, Consistency consistency, boolean gzip) throws IOException {
+        Iterator<Pet> pets = consistency == Consistency.SNAPSHOT
+                ? petRepository.snapshot().iterator()
+                : petRepository.streamAll().iterator();
+        write(out, pets, Pet.class, gzip);
+    }
+
+    public void exportAppointments(OutputStream out, Consistency consistency, boolean gzip) throws IOException {
+        Iterator<Appointment> appointments = consistency == Consistency.SNAPSHOT
+                ? appointmentRepository.snapshot().iterator()
+                : appointmentRepository.streamAll().iterator();
+        write(out, appointments, Appointment.class, gzip);
+    }
+
+    private <T> void write(OutputStream out, Iterator<T> entities, Class<T> type, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        ObjectWriter writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            generator.setRootValueSeparator(null);
+            while (entities.hasNext()) {
+                writer.writeValue(generator, entities.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
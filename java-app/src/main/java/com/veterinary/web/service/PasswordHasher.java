@@ -0,0 +1,99 @@
+package com.veterinary.web.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hash de contraseñas con PBKDF2-HMAC-SHA256 y sal aleatoria por usuario.
+ * <p>
+ * Formato: {@code pbkdf2-sha256$iteraciones$base64(sal)$base64(hash)}. Las iteraciones van dentro
+ * del hash, así que al subir {@code veterinary.auth.pbkdf2-iterations} los hashes anteriores siguen
+ * verificándose y {@link #needsRehash} indica cuáles conviene recalcular. Cualquier otro valor se
+ * trata como contraseña heredada en texto plano.
+ */
+@Component
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(@Value("${veterinary.auth.pbkdf2-iterations:310000}") int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("veterinary.auth.pbkdf2-iterations debe ser positivo");
+        }
+        this.iterations = iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + iterations + "$" + ENCODER.encodeToString(salt) + "$"
+                + ENCODER.encodeToString(derive(password, salt, iterations));
+    }
+
+    public boolean matches(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            byte[] expected = DECODER.decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password, DECODER.decode(parts[1]), Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verdadero si el valor guardado es texto plano o usa menos iteraciones que las configuradas.
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iteraciones no válidas");
+        }
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 no disponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.veterinary.web.service;
+
+import com.veterinary.web.model.Pet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Fotos de mascotas guardadas en disco. La subida multipart se mueve al almacén sin pasar
+ * por memoria y las miniaturas se generan la primera vez que se piden, en una caché en
+ * disco acotada por {@code thumbnail-cache-bytes} que expulsa las menos usadas.
+ */
+@Service
+public class PetPhotoService {
+    public static final Set<Integer> THUMBNAIL_SIZES = Set.of(64, 128, 256);
+    // Límite de píxeles de la imagen original, para no decodificar imágenes desproporcionadas
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+
+    private final PetService petService;
+    private final Path photosDir;
+    private final Path thumbnailsDir;
+    private final long maxThumbnailBytes;
+    private final Map<String, CompletableFuture<Photo>> pendingThumbnails = new ConcurrentHashMap<>();
+    // Orden de acceso: la primera entrada es la menos usada. Protegido por synchronized(thumbnails)
+    private final LinkedHashMap<String, Photo> thumbnails = new LinkedHashMap<>(16, 0.75f, true);
+    private long thumbnailBytes;
+
+    public PetPhotoService(PetService petService,
+                           @Value("${veterinary.photos.dir:data/photos}") String dir,
+                           @Value("${veterinary.photos.thumbnail-cache-bytes:67108864}") long maxThumbnailBytes) throws IOException {
+        this.petService = petService;
+        this.photosDir = Paths.get(dir).toAbsolutePath();
+        this.thumbnailsDir = photosDir.resolve("thumbnails");
+        this.maxThumbnailBytes = maxThumbnailBytes;
+        Files.createDirectories(thumbnailsDir);
+        // Las miniaturas de una ejecución anterior no están contabilizadas: se descartan
+        try (Stream<Path> stale = Files.list(thumbnailsDir)) {
+            stale.forEach(PetPhotoService::deleteQuietly);
+        }
+    }
+
+    /**
+     * Fichero de una foto o miniatura. {@code stamp} es el instante de la subida de la que procede.
+     */
+    public static final class Photo {
+        private final Path path;
+        private final String contentType;
+        private final long size;
+        private final long stamp;
+
+        Photo(Path path, String contentType, long size, long stamp) {
+            this.path = path;
+            this.contentType = contentType;
+            this.size = size;
+            this.stamp = stamp;
+        }
+
+        public Path getPath() { return path; }
+        public String getContentType() { return contentType; }
+        public long getSize() { return size; }
+        public long getStamp() { return stamp; }
+    }
+
+    public Pet store(String petId, MultipartFile upload) throws IOException {
+        if (!petService.get(petId).isPresent()) {
+            throw new IllegalArgumentException("Mascota no encontrada");
+        }
+        Path incoming = Files.createTempFile(photosDir, "upload-", ".tmp");
+        try {
+            // Con la parte ya en disco, transferTo la mueve en lugar de copiarla
+            upload.transferTo(incoming);
+            String contentType = detectContentType(incoming);
+            if (contentType == null) {
+                throw new IllegalArgumentException("Formato de imagen no soportado (JPEG, PNG o GIF)");
+            }
+            Files.move(incoming, photoPath(petId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Pet pet = petService.updatePhoto(petId, contentType);
+            evictThumbnails(petId);
+            return pet;
+        } finally {
+            deleteQuietly(incoming);
+        }
+    }
+
+    public Optional<Photo> photo(String petId) throws IOException {
+        Optional<Pet> pet = petService.get(petId);
+        if (!pet.isPresent() || pet.get().getPhotoContentType() == null) {
+            return Optional.empty();
+        }
+        Path path = photoPath(petId);
+        return Files.exists(path)
+                ? Optional.of(new Photo(path, pet.get().getPhotoContentType(), Files.size(path), pet.get().getPhotoUpdatedAt()))
+                : Optional.empty();
+    }
+
+    /**
+     * Miniatura de {@code size} píxeles en su lado mayor. Si varias peticiones la piden a la
+     * vez, solo una la genera y el resto espera su resultado.
+     */
+    public Optional<Photo> thumbnail(String petId, int size) throws IOException {
+        if (!THUMBNAIL_SIZES.contains(size)) {
+            throw new IllegalArgumentException("Tamaño de miniatura no soportado: " + size);
+        }
+        Optional<Pet> pet = petService.get(petId);
+        if (!pet.isPresent() || pet.get().getPhotoUpdatedAt() == null) {
+            return Optional.empty();
+        }
+        long stamp = pet.get().getPhotoUpdatedAt();
+        String key = fileKey(petId) + "-" + stamp + "-" + size;
+        synchronized (thumbnails) {
+            Photo cached = thumbnails.get(key);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        CompletableFuture<Photo> created = new CompletableFuture<>();
+        CompletableFuture<Photo> inProgress = pendingThumbnails.putIfAbsent(key, created);
+        if (inProgress != null) {
+            return Optional.of(join(inProgress));
+        }
+        try {
+            Photo thumbnail = createThumbnail(photoPath(petId), thumbnailsDir.resolve(key), size, stamp);
+            register(key, thumbnail);
+            created.complete(thumbnail);
+            return Optional.of(thumbnail);
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingThumbnails.remove(key, created);
+        }
+    }
+
+    public void delete(String petId) {
+        deleteQuietly(photoPath(petId));
+        evictThumbnails(petId);
+    }
+
+    public long getThumbnailBytes() {
+        synchronized (thumbnails) {
+            return thumbnailBytes;
+        }
+    }
+
+    private Path photoPath(String petId) {
+        return photosDir.resolve(fileKey(petId));
+    }
+
+    // Los ids pueden venir de una importación: se codifican para que nunca formen una ruta
+    private static String fileKey(String petId) {
+        StringBuilder key = new StringBuilder("pet-");
+        for (byte b : petId.getBytes(StandardCharsets.UTF_8)) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    private static String detectContentType(Path file) throws IOException {
+        byte[] head = new byte[8];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        return null;
+    }
+
+    private static Photo createThumbnail(Path source, Path targetBase, int size, long stamp) throws IOException {
+        BufferedImage image = readSubsampled(source, size);
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        String format = alpha ? "png" : "jpg";
+        Path target = targetBase.resolveSibling(targetBase.getFileName() + "." + format);
+        Path tmp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, format, tmp.toFile())) {
+                throw new IllegalStateException("No hay codificador para " + format);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(tmp);
+        }
+        return new Photo(target, alpha ? "image/png" : "image/jpeg", Files.size(target), stamp);
+    }
+
+    /**
+     * Decodifica la imagen leyendo solo una de cada N filas y columnas, de modo que la memoria
+     * usada depende del tamaño de la miniatura y no del de la foto original.
+     */
+    private static BufferedImage readSubsampled(Path source, int size) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Formato de imagen no soportado");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IllegalArgumentException("La imagen es demasiado grande para generar la miniatura");
+                }
+                int step = Math.max(1, Math.max(width, height) / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void register(String key, Photo thumbnail) {
+        synchronized (thumbnails) {
+            Photo previous = thumbnails.put(key, thumbnail);
+            thumbnailBytes += thumbnail.size - (previous != null ? previous.size : 0);
+            Iterator<Map.Entry<String, Photo>> eldest = thumbnails.entrySet().iterator();
+            while (thumbnailBytes > maxThumbnailBytes && eldest.hasNext()) {
+                Photo evicted = eldest.next().getValue();
+                if (evicted == thumbnail) {
+                    break;
+                }
+                eldest.remove();
+                thumbnailBytes -= evicted.size;
+                deleteQuietly(evicted.path);
+            }
+        }
+    }
+
+    private void evictThumbnails(String petId) {
+        String prefix = fileKey(petId) + "-";
+        synchronized (thumbnails) {
+            Iterator<Map.Entry<String, Photo>> entries = thumbnails.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Photo> entry = entries.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    entries.remove();
+                    thumbnailBytes -= entry.getValue().size;
+                    deleteQuietly(entry.getValue().path);
+                }
+            }
+        }
+    }
+
+    private static Photo join(CompletableFuture<Photo> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Limpieza de mejor esfuerzo: un fichero huérfano no afecta al servicio
+        }
+    }
+}
@@ -16,17 +16,28 @@ public class PetService {
     }
 
     public Pet create(Pet pet) {
+        clearPhoto(pet);
         pet.setCreatedAt(System.currentTimeMillis());
         pet.setUpdatedAt(pet.getCreatedAt());
         return petRepository.save(pet);
     }
 
+    public List<Pet> createAll(List<Pet> batch) {
+        long now = System.currentTimeMillis();
+        for (Pet pet : batch) {
+            clearPhoto(pet);
+            pet.setCreatedAt(now);
+            pet.setUpdatedAt(now);
+        }
+        return petRepository.saveAll(batch);
+    }
+
     public Pet update(String id, Pet updates) {
         Optional<Pet> found = petRepository.findById(id);
         if (!found.isPresent()) {
             throw new IllegalArgumentException("Mascota no encontrada");
         }
-        Pet pet = found.get();
+        Pet pet = found.get().copy();
         pet.setName(updates.getName());
         pet.setAge(updates.getAge());
         pet.setBreed(updates.getBreed());
@@ -39,9 +50,32 @@ public class PetService {
         return petRepository.save(pet);
     }
 
+    /**
+     * Registra (o elimina, con {@code contentType} null) la foto de la mascota.
+     */
+    public Pet updatePhoto(String id, String contentType) {
+        Optional<Pet> found = petRepository.findById(id);
+        if (!found.isPresent()) {
+            throw new IllegalArgumentException("Mascota no encontrada");
+        }
+        Pet pet = found.get().copy();
+        pet.setPhotoContentType(contentType);
+        pet.setPhotoUpdatedAt(contentType != null ? System.currentTimeMillis() : null);
+        pet.setUpdatedAt(System.currentTimeMillis());
+        return petRepository.save(pet);
+    }
+
+    public long version() { return petRepository.version(); }
+
     public void delete(String id) { petRepository.deleteById(id); }
 
     public Optional<Pet> get(String id) { return petRepository.findById(id); }
 
     public List<Pet> list() { return petRepository.findAll(); }
-}
\ No newline at end of file
+
+    // La foto solo se asigna mediante su endpoint de subida
+    private static void clearPhoto(Pet pet) {
+        pet.setPhotoContentType(null);
+        pet.setPhotoUpdatedAt(null);
+    }
+}
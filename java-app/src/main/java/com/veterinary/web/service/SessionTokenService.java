@@ -0,0 +1,151 @@
+package com.veterinary.web.service;
+
+import com.veterinary.web.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens de sesión firmados con HMAC-SHA256 que llevan dentro la identidad del usuario
+ * (id, email, rol) y su caducidad. Se verifican sin consultar ningún repositorio: basta con
+ * recalcular la firma. Los tokens cerrados con logout se recuerdan hasta que caducan.
+ * <p>
+ * Formato: {@code base64url(id \n email \n rol \n expiración \n tokenId) "." base64url(firma)}.
+ * Sin {@code token-secret} configurado se genera una clave aleatoria y los tokens dejan de
+ * ser válidos al reiniciar.
+ */
+@Service
+public class SessionTokenService {
+    /** Cookie con el token que la página principal usa para elegir el estado inicial. */
+    public static final String COOKIE = "vet_session";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    // Mac no es thread-safe; cada hilo reutiliza su instancia
+    private final ThreadLocal<Mac> macs;
+    // tokenId -> expiración de los tokens revocados que aún no han caducado
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public SessionTokenService(@Value("${veterinary.auth.token-secret:}") String secret,
+                               @Value("${veterinary.auth.token-ttl-seconds:28800}") long ttlSeconds) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Identidad contenida en un token válido.
+     */
+    public static final class Session {
+        private final String userId;
+        private final String email;
+        private final String role;
+        private final long expiresAt;
+        private final String tokenId;
+
+        Session(String userId, String email, String role, long expiresAt, String tokenId) {
+            this.userId = userId;
+            this.email = email;
+            this.role = role;
+            this.expiresAt = expiresAt;
+            this.tokenId = tokenId;
+        }
+
+        public String getUserId() { return userId; }
+        public String getEmail() { return email; }
+        public String getRole() { return role; }
+        public long getExpiresAt() { return expiresAt; }
+        public String getTokenId() { return tokenId; }
+    }
+
+    public String issue(User user, long expiresAt) {
+        String payload = String.join("\n", nullToEmpty(user.getId()), nullToEmpty(user.getEmail()),
+                nullToEmpty(user.getRole()), Long.toString(expiresAt), UUID.randomUUID().toString());
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    public long newExpiration() {
+        return System.currentTimeMillis() + ttlMillis;
+    }
+
+    public Optional<Session> verify(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encoded = token.substring(0, dot);
+        byte[] signature;
+        String[] fields;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+            fields = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\n", -1);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(signature, sign(encoded)) || fields.length != 5) {
+            return Optional.empty();
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(fields[3]);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (expiresAt <= System.currentTimeMillis() || revoked.containsKey(fields[4])) {
+            return Optional.empty();
+        }
+        return Optional.of(new Session(fields[0], fields[1], fields[2], expiresAt, fields[4]));
+    }
+
+    public void revoke(Session session) {
+        long now = System.currentTimeMillis();
+        // Los tokens ya caducados no necesitan seguir en la lista: así se mantiene pequeña
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        revoked.put(session.getTokenId(), session.getExpiresAt());
+    }
+
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,48 @@
+package com.veterinary.web.service;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Locks por franjas para serializar la validación de solapamiento y el guardado
+ * de citas de un mismo (veterinario, fecha). Los locks se toman siempre en orden
+ * ascendente de franja para evitar interbloqueos cuando una operación abarca varias.
+ * El tiempo hasta tenerlos todos se registra en {@code lockWait}.
+ */
+final class SlotLocks {
+    private final ReentrantLock[] stripes;
+    private final Timer lockWait;
+
+    SlotLocks(int count, Timer lockWait) {
+        this.lockWait = lockWait;
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    BitSet stripesFor(String veterinarian, String date, BitSet into) {
+        into.set(Math.floorMod(Objects.hash(veterinarian, date), stripes.length));
+        return into;
+    }
+
+    <T> T withLocks(BitSet held, Supplier<T> action) {
+        long start = System.nanoTime();
+        for (int i = held.nextSetBit(0); i >= 0; i = held.nextSetBit(i + 1)) {
+            stripes[i].lock();
+        }
+        lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        try {
+            return action.get();
+        } finally {
+            for (int i = held.previousSetBit(held.length() - 1); i >= 0; i = held.previousSetBit(i - 1)) {
+                stripes[i].unlock();
+            }
+        }
+    }
+}
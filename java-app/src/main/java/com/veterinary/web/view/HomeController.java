@@ -0,0 +1,98 @@
+package com.veterinary.web.view;
+
+import com.veterinary.web.cache.JsonFragmentCache;
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.service.AppointmentService;
+import com.veterinary.web.service.PetService;
+import com.veterinary.web.service.SessionTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Página principal. Con {@code veterinary.ssr.initial-state} activo (perfil prod) incrusta en la
+ * plantilla el contenido de {@code /api/pets} y {@code /api/appointments}, de modo que app.js pinta
+ * la primera vista sin esperar a la API.
+ * <p>
+ * Es una instantánea de toda la clínica, así que solo se incrusta para el personal: la identidad
+ * sale de la cookie de sesión que pone el login. Visitantes anónimos y dueños reciben la página sin
+ * estado y cargan sus datos desde la API como siempre. La respuesta con estado es privada.
+ */
+@Controller
+public class HomeController {
+    private final PetService petService;
+    private final AppointmentService appointmentService;
+    private final JsonFragmentCache jsonCache;
+    private final SessionTokenService sessionTokens;
+    private final boolean initialStateEnabled;
+    private final int maxItems;
+
+    public HomeController(PetService petService, AppointmentService appointmentService, JsonFragmentCache jsonCache,
+                          SessionTokenService sessionTokens,
+                          @Value("${veterinary.ssr.initial-state:false}") boolean initialStateEnabled,
+                          @Value("${veterinary.ssr.max-items:500}") int maxItems) {
+        this.petService = petService;
+        this.appointmentService = appointmentService;
+        this.jsonCache = jsonCache;
+        this.sessionTokens = sessionTokens;
+        this.initialStateEnabled = initialStateEnabled;
+        this.maxItems = maxItems;
+    }
+
+    @GetMapping("/")
+    public String index(@CookieValue(value = SessionTokenService.COOKIE, required = false) String token,
+                        Model model, HttpServletResponse response) {
+        if (initialStateEnabled) {
+            // La página cambia según la cookie: ninguna caché compartida debe guardarla
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-store");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+            if (isStaff(sessionTokens.verify(token))) {
+                model.addAttribute("initialState", initialState());
+            }
+        }
+        return "index";
+    }
+
+    /**
+     * Personal de la clínica: cualquier sesión válida cuyo rol no sea el de dueño.
+     */
+    private static boolean isStaff(Optional<SessionTokenService.Session> session) {
+        return session.map(SessionTokenService.Session::getRole)
+                .filter(role -> !role.isBlank() && !role.equalsIgnoreCase("user"))
+                .isPresent();
+    }
+
+    /**
+     * JSON con los listados que caben en el límite; los que no, se omiten y el cliente los pide a la API.
+     * Los '<' se escapan para que el contenido no pueda cerrar el bloque {@code <script>}.
+     */
+    private String initialState() {
+        StringBuilder json = new StringBuilder("{");
+        List<Pet> pets = petService.list();
+        if (pets.size() <= maxItems) {
+            json.append("\"pets\":").append(utf8(jsonCache.toJsonArray(pets, Pet::getId, Pet::getVersion)));
+        }
+        List<Appointment> appointments = appointmentService.list();
+        if (appointments.size() <= maxItems) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("\"appointments\":")
+                    .append(utf8(jsonCache.toJsonArray(appointments, Appointment::getId, Appointment::getVersion)));
+        }
+        return json.append('}').toString().replace("<", "\\u003c");
+    }
+
+    private static String utf8(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
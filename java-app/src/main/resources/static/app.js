@@ -6,6 +6,134 @@ let authSystem;
 let veterinarySystem;
 let petToDelete = null;
 
+// ===== INITIAL STATE (SSR) =====
+// En producción el servidor incrusta /api/pets y /api/appointments en la página. Las lecturas
+// GET de esas rutas se responden desde ahí hasta la primera modificación (o pasados 30 s),
+// así la primera vista se pinta sin esperar a la API.
+(function installInitialState() {
+    const el = document.getElementById('initialState');
+    if (!el || !window.fetch) return;
+    let state;
+    try {
+        state = JSON.parse(el.textContent);
+    } catch (e) {
+        console.error('❌ Estado inicial inválido:', e);
+        return;
+    }
+    let preloaded = { '/api/pets': state.pets, '/api/appointments': state.appointments };
+    const expiresAt = Date.now() + 30000;
+    const nativeFetch = window.fetch.bind(window);
+    window.fetch = function (input, init) {
+        if (preloaded) {
+            const method = String((init && init.method) || (input && input.method) || 'GET').toUpperCase();
+            const url = new URL(typeof input === 'string' ? input : input.url, window.location.href);
+            if (method !== 'GET' || Date.now() > expiresAt) {
+                preloaded = null;
+            } else if (url.origin === window.location.origin && preloaded[url.pathname + url.search] !== undefined) {
+                const body = JSON.stringify(preloaded[url.pathname + url.search]);
+                return Promise.resolve(new Response(body, { status: 200, headers: { 'Content-Type': 'application/json' } }));
+            }
+        }
+        return nativeFetch(input, init);
+    };
+})();
+
+// ===== SESSION TOKEN =====
+// El servidor identifica al usuario por el token de /api/auth/login. Se guarda en localStorage y
+// se añade como "Authorization: Bearer" a todas las peticiones a /api/ del mismo origen.
+const SESSION_TOKEN_KEY = 'sessionToken';
+
+function getSessionToken() {
+    try {
+        const stored = JSON.parse(localStorage.getItem(SESSION_TOKEN_KEY) || 'null');
+        if (stored && stored.token && stored.expiresAt > Date.now()) return stored.token;
+    } catch (e) {
+        // Valor corrupto: se descarta
+    }
+    localStorage.removeItem(SESSION_TOKEN_KEY);
+    return null;
+}
+
+(function installSessionToken() {
+    if (!window.fetch) return;
+    const innerFetch = window.fetch;
+    window.fetch = function (input, init) {
+        const token = getSessionToken();
+        const url = new URL(typeof input === 'string' ? input : input.url, window.location.href);
+        if (!token || url.origin !== window.location.origin || !url.pathname.startsWith('/api/')) {
+            return innerFetch(input, init);
+        }
+        const headers = new Headers((init && init.headers) || (typeof input === 'string' ? undefined : input.headers));
+        if (!headers.has('Authorization')) headers.set('Authorization', 'Bearer ' + token);
+        return innerFetch(input, Object.assign({}, init, { headers })).then(resp => {
+            // Token revocado, caducado o firmado por otro arranque del servidor: hay que volver a entrar
+            if (resp.status === 401 && !url.pathname.startsWith('/api/auth/')) {
+                returnToLogin('Tu sesión ha caducado. Inicia sesión de nuevo.');
+            }
+            return resp;
+        });
+    };
+})();
+
+// Un 429 del límite de peticiones se rechaza antes de llegar a los controladores, así que se puede
+// repetir tal cual: se espera lo que indica Retry-After (máximo 30 s) y se reintenta hasta 3 veces.
+(function installRetryAfter() {
+    if (!window.fetch) return;
+    const innerFetch = window.fetch;
+    const sleep = ms => new Promise(resolve => setTimeout(resolve, ms));
+    window.fetch = async function (input, init) {
+        for (let attempt = 0; ; attempt++) {
+            const resp = await innerFetch(input, init);
+            if (resp.status !== 429 || attempt >= 3) return resp;
+            const seconds = parseInt(resp.headers.get('Retry-After'), 10);
+            await sleep(Math.min(30, Number.isFinite(seconds) && seconds > 0 ? seconds : 1) * 1000);
+        }
+    };
+})();
+
+// Inicia sesión también en el servidor y guarda el token. Los usuarios viven en localStorage, pero el
+// servidor los guarda en memoria: tras un reinicio solo conoce los precargados. Si no reconoce las
+// credenciales se da de alta al usuario con los datos locales y se repite el login. Sin token la API
+// rechaza las operaciones con identidad, así que si nada de eso funciona se lanza un error.
+async function startServerSession(user, password) {
+    localStorage.removeItem(SESSION_TOKEN_KEY);
+    const login = () => fetch('/api/auth/login', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ email: user.email, password })
+    });
+    let resp;
+    try {
+        resp = await login();
+        if (resp.status === 401) {
+            const registered = await fetch('/api/auth/register', {
+                method: 'POST',
+                headers: { 'Content-Type': 'application/json' },
+                body: JSON.stringify({ name: user.name, email: user.email, password, role: user.role, phone: user.phone })
+            });
+            if (registered.ok) resp = await login();
+        }
+    } catch (e) {
+        throw new Error('No se pudo conectar con el servidor para iniciar sesión');
+    }
+    if (!resp.ok) {
+        throw new Error('El servidor no aceptó el inicio de sesión; inténtalo de nuevo');
+    }
+    const data = await resp.json();
+    localStorage.setItem(SESSION_TOKEN_KEY, JSON.stringify({ token: data.token, expiresAt: data.expiresAt }));
+}
+
+// Revoca el token en el servidor (también borra la cookie de la página) y lo olvida
+async function endServerSession() {
+    if (!getSessionToken()) return;
+    try {
+        await fetch('/api/auth/logout', { method: 'POST' });
+    } catch (e) {
+        console.warn('⚠️ No se pudo cerrar la sesión en el servidor:', e);
+    }
+    localStorage.removeItem(SESSION_TOKEN_KEY);
+}
+
 // ===== AUTHENTICATION SYSTEM =====
 class AuthenticationSystem {
     constructor() {
@@ -1953,12 +2081,7 @@ function saveAppointmentEdit() {
 function cancelAppointment(id) {
     (async () => {
         try {
-            const currentUser = authSystem && authSystem.getCurrentUser ? authSystem.getCurrentUser() : null;
             const headers = { 'Content-Type': 'application/json' };
-            if (currentUser) {
-                headers['X-User-Email'] = String(currentUser.email||'');
-                headers['X-User-Role'] = String(currentUser.role||'');
-            }
             const resp = await fetch(`/api/appointments/${id}`, { method: 'PUT', headers, body: JSON.stringify({ status: 'cancelada' }) });
             if (!resp.ok) {
                 const txt = await resp.text();
@@ -2025,12 +2148,7 @@ function confirmCancelAppointment() {
 function deleteAppointment(id) {
     (async () => {
         try {
-            const currentUser = authSystem && authSystem.getCurrentUser ? authSystem.getCurrentUser() : null;
             const headers = {};
-            if (currentUser) {
-                headers['X-User-Email'] = String(currentUser.email||'');
-                headers['X-User-Role'] = String(currentUser.role||'');
-            }
             const resp = await fetch(`/api/appointments/${id}`, { method: 'DELETE', headers });
             if (resp.status !== 204 && !resp.ok) {
                 const txt = await resp.text();
@@ -2625,6 +2743,12 @@ function handleRegister(event) {
         };
         if (!authSystem) authSystem = new AuthenticationSystem();
         const newUser = authSystem.registerUser(userData);
+        // Alta también en el servidor para que el login pueda obtener un token
+        fetch('/api/auth/register', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ name: newUser.name, email: newUser.email, password: userData.password, role: newUser.role, phone: newUser.phone })
+        }).catch(e => console.warn('⚠️ No se pudo registrar el usuario en el servidor:', e));
         showMessage('Cuenta creada para ' + newUser.name, 'success');
         showLoginForm();
         const loginEmailEl = document.getElementById('loginEmail');
@@ -2638,7 +2762,7 @@ function handleRegister(event) {
     }
 }
 
-function handleLogin(event) {
+async function handleLogin(event) {
     event.preventDefault();
     try {
         const email = document.getElementById('loginEmail').value;
@@ -2646,6 +2770,12 @@ function handleLogin(event) {
         const role = document.getElementById('loginRole').value;
         if (!authSystem) authSystem = new AuthenticationSystem();
         const user = authSystem.loginUser(email, password, role);
+        try {
+            await startServerSession(user, password);
+        } catch (e) {
+            authSystem.logout();
+            throw e;
+        }
         showMessage('Bienvenido ' + user.name + ' (' + authSystem.getRoleDisplayName(user.role) + ')', 'success');
         // Show main UI
         const authContainer = document.getElementById('authContainer');
@@ -2669,9 +2799,16 @@ function handleLogin(event) {
 }
 
 function logout() {
+    endServerSession();
+    returnToLogin('Sesión cerrada', 'info');
+}
+
+// Cierra la sesión local y vuelve al formulario de login (logout, token caducado o rechazado)
+function returnToLogin(message, type = 'error') {
     if (authSystem) {
         authSystem.logout();
     }
+    localStorage.removeItem(SESSION_TOKEN_KEY);
     // Reset UI to auth
     const authContainer = document.getElementById('authContainer');
     const header = document.getElementById('mainHeader');
@@ -2680,7 +2817,7 @@ function logout() {
     if (header) header.style.display = 'none';
     if (main) main.style.display = 'none';
     showLoginForm();
-    showMessage('Sesión cerrada', 'info');
+    showMessage(message, type);
 }
 
 document.addEventListener('DOMContentLoaded', () => {
@@ -2741,9 +2878,12 @@ document.addEventListener('DOMContentLoaded', () => {
 
     // Formulario de consultas eliminado
 
-    // Auto-login if user stored
+    // Auto-login if user stored (y con token vigente: sin él la API rechazaría sus operaciones)
     const current = authSystem && authSystem.getCurrentUser();
-    if (current) {
+    if (current && !getSessionToken()) {
+        returnToLogin('Tu sesión ha caducado. Inicia sesión de nuevo.', 'info');
+        updateUserInfo();
+    } else if (current) {
         // Show header and main
         const authContainer = document.getElementById('authContainer');
         const header = document.getElementById('mainHeader');
@@ -0,0 +1,202 @@
+package com.veterinary.services.clinic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.veterinary.models.pet.PetRecord;
+import com.veterinary.models.pet.PetRecordBuilder;
+
+/**
+ * Pruebas con muchos hilos sobre {@link VeterinarySystem}: registros de mascotas y citas en
+ * paralelo no se pierden ni repiten id, cada cita se ve en cuanto se programa, el índice por dueño
+ * encuentra todas las mascotas sin distinguir mayúsculas y los índices de citas por veterinario y
+ * por fecha encuentran todas las citas. El sistema es un singleton compartido por todas las pruebas, así que cada una usa nombres
+ * propios y compara solo lo que ella ha registrado.
+ * <p>
+ * Cada hilo hace {@code -Dclinic.operations} operaciones (20000 por defecto) con
+ * {@code -Dclinic.threads} hilos (el doble de procesadores, mínimo 4).
+ */
+public class VeterinarySystemConcurrencyTests {
+    private static final int OWNERS = 50;
+
+    private final int operations = Integer.getInteger("clinic.operations", 20_000);
+    private final int threads = Integer.getInteger("clinic.threads", Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Todos los hilos obtienen la misma instancia")
+    void getInstanceIsUniqueAcrossThreads() throws Exception {
+        Set<VeterinarySystem> instances = ConcurrentHashMap.newKeySet();
+        runInParallel("instance", i -> instances.add(VeterinarySystem.getInstance()));
+        assertEquals(1, instances.size());
+        assertSame(VeterinarySystem.getInstance(), instances.iterator().next());
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Registros de mascotas en paralelo quedan todos guardados e indexados por dueño")
+    void parallelRegisterPetKeepsEveryRecord() throws Exception {
+        VeterinarySystem system = VeterinarySystem.getInstance();
+        String prefix = "Dueño " + UUID.randomUUID() + " ";
+        List<List<PetRecord>> records = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<PetRecord> own = new ArrayList<>(operations);
+            for (int i = 0; i < operations; i++) {
+                // Mismo dueño escrito con distintas mayúsculas según el hilo
+                String owner = prefix + (i % OWNERS);
+                own.add(pet("Mascota " + t + "-" + i, t % 2 == 0 ? owner : owner.toUpperCase(Locale.ROOT)));
+            }
+            records.add(own);
+        }
+
+        // Un lector consulta el índice mientras se escribe
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<Throwable> readerErrors = new ConcurrentLinkedQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    system.findPetsByOwner(prefix + 0);
+                }
+            } catch (Throwable e) {
+                readerErrors.add(e);
+            }
+        }, "clinic-reader");
+        reader.start();
+        double elapsed;
+        try {
+            elapsed = runInParallel("register", i -> {
+                int thread = i / operations;
+                system.registerPet(records.get(thread).get(i % operations));
+            });
+        } finally {
+            writing.set(false);
+            reader.join();
+        }
+
+        int total = threads * operations;
+        assertTrue(readerErrors.isEmpty(), () -> "Errores del lector: " + readerErrors);
+        long registered = system.getAllPetRecords().stream()
+                .filter(record -> record.getOwnerName().regionMatches(true, 0, prefix, 0, prefix.length()))
+                .count();
+        assertEquals(total, registered);
+        for (int owner = 0; owner < OWNERS; owner++) {
+            String name = prefix + owner;
+            long expected = (long) threads * (operations / OWNERS + (owner < operations % OWNERS ? 1 : 0));
+            List<PetRecord> found = system.findPetsByOwner(name.toLowerCase(Locale.ROOT));
+            assertEquals(expected, found.size(), "Mascotas de " + name);
+            assertTrue(found.stream().allMatch(record -> record.getOwnerName().equalsIgnoreCase(name)));
+            assertEquals(found.size(), system.findPetsByOwner(name.toUpperCase(Locale.ROOT)).size());
+        }
+        assertTrue(system.findPetsByOwner(prefix + OWNERS).isEmpty());
+        System.out.printf("registerPet: %d hilos, %d registros (%.0f ops/s)%n", threads, total, total / elapsed);
+    }
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Citas programadas en paralelo reciben ids únicos, se ven al volver y quedan en la vista y en los índices")
+    void parallelScheduleAppointmentAssignsUniqueIds() throws Exception {
+        VeterinarySystem system = VeterinarySystem.getInstance();
+        String prefix = "Mascota " + UUID.randomUUID() + " ";
+        int before = Integer.parseInt(system.getSystemInfo().get("appointment_count"));
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        double elapsed = runInParallel("schedule", i -> {
+            int id = system.scheduleAppointment(prefix + i, "2026-05-" + (1 + i % 28), 1 + i % 3, "Control general");
+            // Quien programa la cita la ve en cuanto scheduleAppointment vuelve
+            ClinicAppointment own = system.getAppointment(id);
+            assertNotNull(own, "La cita " + id + " no está publicada al volver");
+            assertEquals(prefix + i, own.getPetName());
+            assertTrue(system.getAppointments().size() >= id);
+            ids.add(id);
+        });
+
+        int total = threads * operations;
+        assertEquals(total, ids.size(), "Se repitieron ids de cita");
+        assertTrue(Integer.parseInt(system.getSystemInfo().get("appointment_count")) >= before + total);
+        List<ClinicAppointment> snapshot = system.getAppointments();
+        Set<Integer> stored = new HashSet<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            ClinicAppointment appointment = snapshot.get(i);
+            assertEquals(i + 1, appointment.getId(), "La vista de citas no sigue el orden de ids");
+            if (appointment.getPetName().startsWith(prefix)) {
+                assertTrue(ids.contains(appointment.getId()));
+                stored.add(appointment.getId());
+                assertSame(appointment, system.getAppointment(appointment.getId()));
+            }
+        }
+        assertEquals(total, stored.size());
+
+        long byVeterinarian = 0;
+        for (int veterinarianId = 1; veterinarianId <= 3; veterinarianId++) {
+            int id = veterinarianId;
+            List<ClinicAppointment> found = system.findAppointmentsByVeterinarian(id);
+            assertTrue(found.stream().allMatch(appointment -> appointment.getVeterinarianId() == id));
+            byVeterinarian += found.stream().filter(appointment -> stored.contains(appointment.getId())).count();
+        }
+        assertEquals(total, byVeterinarian);
+        long byDate = 0;
+        for (int day = 1; day <= 28; day++) {
+            String date = "2026-05-" + day;
+            List<ClinicAppointment> found = system.findAppointmentsByDate(date);
+            assertTrue(found.stream().allMatch(appointment -> date.equals(appointment.getDate())));
+            byDate += found.stream().filter(appointment -> stored.contains(appointment.getId())).count();
+        }
+        assertEquals(total, byDate);
+        System.out.printf("scheduleAppointment: %d hilos, %d citas (%.0f ops/s)%n", threads, total, total / elapsed);
+    }
+
+    /**
+     * Reparte {@code threads * operations} índices entre los hilos, los arranca a la vez y devuelve
+     * los segundos transcurridos. Falla si algún hilo lanza una excepción.
+     */
+    private double runInParallel(String name, IntConsumer operation) throws InterruptedException {
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int first = t * operations;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = first; i < first + operations; i++) {
+                        operation.accept(i);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "clinic-" + name + "-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(50, TimeUnit.SECONDS), "Los hilos no terminaron a tiempo");
+        double elapsed = (System.nanoTime() - began) / 1e9;
+        assertTrue(errors.isEmpty(), () -> "Errores inesperados: " + errors);
+        return elapsed;
+    }
+
+    private static PetRecord pet(String name, String owner) {
+        return new PetRecordBuilder()
+                .setAnimalWithFamily("domestic", "perro", name, 3, "Mestizo", owner)
+                .build();
+    }
+}
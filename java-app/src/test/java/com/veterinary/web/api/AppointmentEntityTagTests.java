@@ -0,0 +1,90 @@
+package com.veterinary.web.api;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.service.AppointmentService;
+
+/**
+ * Pruebas de los ETags de {@code /api/appointments}: un {@code If-None-Match} vigente responde 304
+ * sin cuerpo, el ETag lleva delante el identificador de arranque y cambia con cada escritura, y las
+ * respuestas declaran {@code Vary: Accept}.
+ */
+@SpringBootTest(properties = "veterinary.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+public class AppointmentEntityTagTests {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Test
+    @DisplayName("If-None-Match con el ETag vigente responde 304 sin cuerpo")
+    void matchingTagIsNotModified() throws Exception {
+        String etag = mvc.perform(get("/api/appointments"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem("Accept")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String body = mvc.perform(get("/api/appointments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem("Accept")))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("", body);
+        mvc.perform(get("/api/appointments").header(HttpHeaders.IF_NONE_MATCH, "\"otro\", W/" + etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("El ETag lleva el identificador de arranque y cambia al guardar una cita")
+    void tagCarriesBootIdAndVersion() throws Exception {
+        String etag = mvc.perform(get("/api/appointments")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.matches("\"[0-9a-z]+-\\d+\""), etag);
+        String version = etag.substring(etag.indexOf('-') + 1, etag.length() - 1);
+
+        // El mismo contador de otro arranque no vale
+        mvc.perform(get("/api/appointments").header(HttpHeaders.IF_NONE_MATCH, "\"0-" + version + "\""))
+                .andExpect(status().isOk());
+
+        Appointment appointment = new Appointment();
+        appointment.setPetId("1");
+        appointment.setVeterinarian("Dra. Etag");
+        appointment.setDate("2026-07-01");
+        appointment.setTime("09:00");
+        appointmentService.create(appointment);
+
+        String changed = mvc.perform(get("/api/appointments").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+        assertEquals(etag.substring(0, etag.indexOf('-')), changed.substring(0, changed.indexOf('-')));
+    }
+
+    @Test
+    @DisplayName("Cada formato y proyección tiene su propio ETag")
+    void representationsHaveTheirOwnTag() throws Exception {
+        String json = mvc.perform(get("/api/appointments")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String projected = mvc.perform(get("/api/appointments").param("fields", "id,date"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(json, projected);
+        mvc.perform(get("/api/appointments").param("fields", "id,date").header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,114 @@
+package com.veterinary.web.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Pruebas de {@link FileResponses}: un rango válido responde 206 con solo esos bytes, uno fuera del
+ * fichero responde 416, y un {@code If-Range} que ya no coincide devuelve el fichero completo.
+ */
+public class FileResponsesTests {
+    private static final String ETAG = "\"42\"";
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(dir.resolve("foto.png"), content);
+    }
+
+    @Test
+    @DisplayName("Un rango de bytes responde 206 con Content-Range y solo esa parte")
+    void rangeAnswersPartialContent() throws Exception {
+        MockHttpServletResponse response = send(request("bytes=10-19"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+
+        MockHttpServletResponse suffix = send(request("bytes=-5"));
+        assertEquals(206, suffix.getStatus());
+        assertEquals("bytes 95-99/100", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 95, 100), suffix.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Un rango fuera del fichero o mal formado responde 416")
+    void unsatisfiableRangeIsRejected() throws Exception {
+        for (String range : new String[] {"bytes=100-120", "bytes=abc"}) {
+            MockHttpServletResponse response = send(request(range));
+
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+            assertEquals(0, response.getContentAsByteArray().length, range);
+        }
+    }
+
+    @Test
+    @DisplayName("Sin rango, con If-Range desfasado o con el rango completo se envía el fichero entero")
+    void fullContentWhenRangeDoesNotApply() throws Exception {
+        MockHttpServletRequest stale = request("bytes=0-9");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"41\"");
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[] {request(null), stale, request("bytes=0-")}) {
+            MockHttpServletResponse response = send(request);
+
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+            assertArrayEquals(content, response.getContentAsByteArray());
+        }
+    }
+
+    @Test
+    @DisplayName("If-None-Match con el ETag vigente responde 304 y HEAD no envía cuerpo")
+    void notModifiedAndHead() throws Exception {
+        MockHttpServletRequest revalidation = request(null);
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletRequest head = request(null);
+        head.setMethod("HEAD");
+
+        MockHttpServletResponse notModified = send(revalidation);
+        MockHttpServletResponse headers = send(head);
+
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(200, headers.getStatus());
+        assertEquals(100, headers.getContentLengthLong());
+        assertEquals(0, headers.getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pets/1/photo");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileResponses.send(request, response, file, "image/png", content.length, ETAG);
+        return response;
+    }
+}
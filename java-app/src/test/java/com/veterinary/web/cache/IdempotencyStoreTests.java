@@ -0,0 +1,166 @@
+package com.veterinary.web.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pruebas de {@link IdempotencyStore}: un reintento con la misma clave recibe la respuesta original
+ * sin repetir la acción, otra petición con la misma clave recibe 422, un reintento durante la original
+ * recibe 409, los 5xx no se guardan y las entradas caducan o se expulsan al superar el máximo.
+ */
+public class IdempotencyStoreTests {
+    private static final String SCOPE = "appointments:user:7";
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    @DisplayName("Un reintento con la misma clave devuelve la respuesta original sin ejecutar de nuevo")
+    void retryIsReplayed() {
+        IdempotencyStore store = store(10, 60, 1000);
+
+        ResponseEntity<?> first = store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("1"));
+        ResponseEntity<?> retry = store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("2"));
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatusCodeValue());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, store.getReplays());
+        // Sin clave, o con la misma clave desde otro cliente, se ejecuta siempre
+        store.execute(SCOPE, null, post(), Map.of("time", "09:00"), () -> created("3"));
+        store.execute("appointments:user:8", "k1", post(), Map.of("time", "09:00"), () -> created("4"));
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    @DisplayName("La misma clave con otro cuerpo o en otra ruta responde 422")
+    void reusedKeyWithDifferentRequestIsRejected() {
+        IdempotencyStore store = store(10, 60, 1000);
+        store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("1"));
+
+        ResponseEntity<?> otherBody = store.execute(SCOPE, "k1", post(), Map.of("time", "10:00"), () -> created("2"));
+        MockHttpServletRequest otherPath = new MockHttpServletRequest("POST", "/api/pets");
+        ResponseEntity<?> otherRoute = store.execute(SCOPE, "k1", otherPath, Map.of("time", "09:00"), () -> created("3"));
+
+        assertEquals(422, otherBody.getStatusCodeValue());
+        assertEquals(422, otherRoute.getStatusCodeValue());
+        assertEquals(1, executions.get());
+        assertEquals(0, store.getReplays());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Un reintento mientras la original sigue en curso recibe 409 con Retry-After")
+    void retryWhileInFlightIsConflict() throws Exception {
+        IdempotencyStore store = store(10, 60, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> original = CompletableFuture.supplyAsync(() ->
+                store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> {
+                    started.countDown();
+                    await(release);
+                    return created("1");
+                }));
+        started.await();
+
+        ResponseEntity<?> retry = store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("2"));
+        release.countDown();
+
+        assertEquals(409, retry.getStatusCodeValue());
+        assertEquals("1", retry.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, original.get().getStatusCodeValue());
+        assertEquals(1, executions.get());
+        // Terminada la original, el reintento recibe su respuesta
+        assertEquals(original.get().getBody(),
+                store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("3")).getBody());
+    }
+
+    @Test
+    @DisplayName("Las respuestas 5xx y las excepciones no se guardan")
+    void serverErrorsAreNotCached() {
+        IdempotencyStore store = store(10, 60, 1000);
+
+        ResponseEntity<?> failed = store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(503).body(Map.of("error", "No disponible"));
+        });
+        assertThrows(IllegalStateException.class, () -> store.execute(SCOPE, "k2", post(), Map.of("time", "09:00"), () -> {
+            throw new IllegalStateException("fallo");
+        }));
+        ResponseEntity<?> retried = store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("1"));
+        ResponseEntity<?> afterException = store.execute(SCOPE, "k2", post(), Map.of("time", "09:00"), () -> created("2"));
+
+        assertEquals(503, failed.getStatusCodeValue());
+        assertEquals(200, retried.getStatusCodeValue());
+        assertEquals(200, afterException.getStatusCodeValue());
+        assertNull(retried.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    @DisplayName("Las entradas caducan tras el TTL")
+    void expiredEntriesRunAgain() throws Exception {
+        IdempotencyStore store = store(10, 0, 1000);
+        store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("1"));
+        Thread.sleep(2);
+
+        // Caducada, la clave vale incluso para otra petición
+        ResponseEntity<?> again = store.execute(SCOPE, "k1", post(), Map.of("time", "10:00"), () -> created("2"));
+
+        assertEquals(200, again.getStatusCodeValue());
+        assertEquals(2, executions.get());
+        assertEquals(1, store.getEntryCount());
+    }
+
+    @Test
+    @DisplayName("Al superar max-entries se expulsan las entradas más antiguas")
+    void oldestEntriesAreEvicted() {
+        IdempotencyStore store = store(2, 60, 1000);
+        for (String key : new String[] {"k1", "k2", "k3"}) {
+            store.execute(SCOPE, key, post(), Map.of("time", "09:00"), () -> created(key));
+        }
+        assertEquals(2, store.getEntryCount());
+
+        store.execute(SCOPE, "k3", post(), Map.of("time", "09:00"), () -> created("otra"));
+        assertEquals(3, executions.get());
+        store.execute(SCOPE, "k1", post(), Map.of("time", "09:00"), () -> created("otra"));
+        assertEquals(4, executions.get());
+        assertEquals(2, store.getEntryCount());
+    }
+
+    private static IdempotencyStore store(int maxEntries, long ttlSeconds, long waitMillis) {
+        return new IdempotencyStore(new ObjectMapper(), maxEntries, ttlSeconds, waitMillis);
+    }
+
+    private static MockHttpServletRequest post() {
+        return new MockHttpServletRequest("POST", "/api/appointments");
+    }
+
+    private ResponseEntity<?> created(String id) {
+        executions.incrementAndGet();
+        return ResponseEntity.ok(Map.of("id", id));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
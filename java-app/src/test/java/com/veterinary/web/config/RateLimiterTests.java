@@ -0,0 +1,150 @@
+package com.veterinary.web.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.veterinary.web.model.User;
+import com.veterinary.web.service.SessionTokenService;
+
+/**
+ * Pruebas de {@link RateLimiter} y {@link RateLimitFilter}: la ráfaga admite {@code burst} peticiones
+ * seguidas, el saldo se repone al ritmo de {@code rate}, al agotarlo se responde 429 con el
+ * {@code Retry-After} que corresponde y {@code X-User-Email} no abre cubos nuevos sin legacy-headers.
+ */
+public class RateLimiterTests {
+    private static final String CLIENT = "ip:10.0.0.1";
+
+    @Test
+    @DisplayName("La ráfaga admite burst peticiones seguidas y rechaza la siguiente")
+    void burstIsAdmittedThenRejected() {
+        RateLimiter limiter = new RateLimiter(properties(1, 5));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("GET", "/api/pets", CLIENT), "Petición " + i + " de la ráfaga");
+        }
+        long wait = limiter.tryAcquire("GET", "/api/pets", CLIENT);
+
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "Espera " + wait);
+        // Cada cliente tiene su propio cubo
+        assertEquals(0, limiter.tryAcquire("GET", "/api/pets", "ip:10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("El saldo se repone al ritmo de rate")
+    void tokensRefillAtRate() throws Exception {
+        RateLimiter limiter = new RateLimiter(properties(50, 2));
+        assertEquals(0, limiter.tryAcquire("GET", "/api/pets", CLIENT));
+        assertEquals(0, limiter.tryAcquire("GET", "/api/pets", CLIENT));
+
+        long wait = limiter.tryAcquire("GET", "/api/pets", CLIENT);
+        assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(20), "Espera " + wait);
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("GET", "/api/pets", CLIENT));
+        assertTrue(limiter.tryAcquire("GET", "/api/pets", CLIENT) > 0, "Solo se repuso una petición");
+    }
+
+    @Test
+    @DisplayName("Cada ruta configurada tiene su propio presupuesto")
+    void routesHaveSeparateBudgets() {
+        RateLimitProperties properties = properties(100, 100);
+        RateLimitProperties.Route login = new RateLimitProperties.Route();
+        login.setMethod("post");
+        login.setPath("/api/auth/login");
+        login.setRate(1);
+        login.setBurst(1);
+        properties.setRoutes(List.of(login));
+        RateLimiter limiter = new RateLimiter(properties);
+
+        assertEquals(0, limiter.tryAcquire("POST", "/api/auth/login", CLIENT));
+        assertTrue(limiter.tryAcquire("POST", "/api/auth/login", CLIENT) > 0);
+        assertEquals(0, limiter.tryAcquire("GET", "/api/auth/login", CLIENT));
+        assertEquals(0, limiter.tryAcquire("POST", "/api/pets", CLIENT));
+    }
+
+    @Test
+    @DisplayName("Al agotar el presupuesto el filtro responde 429 con Retry-After")
+    void filterAnswersTooManyRequests() throws Exception {
+        RateLimitFilter filter = filter(0.5, 1, false);
+
+        MockHttpServletResponse first = send(filter, request());
+        MockHttpServletResponse second = send(filter, request());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        // Una petición cada 2 s: la siguiente se admite en (casi) 2 s, redondeado hacia arriba
+        assertEquals("2", second.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("application/json", second.getContentType());
+        assertTrue(second.getContentAsString().contains("Demasiadas peticiones"));
+    }
+
+    @Test
+    @DisplayName("Sin legacy-headers, cambiar X-User-Email no da un presupuesto nuevo")
+    void spoofedEmailIsIgnored() throws Exception {
+        RateLimitFilter filter = filter(0.5, 1, false);
+        MockHttpServletRequest first = request();
+        first.addHeader("X-User-Email", "ana@test.com");
+        MockHttpServletRequest spoofed = request();
+        spoofed.addHeader("X-User-Email", "otro@test.com");
+
+        assertEquals(200, send(filter, first).getStatus());
+        assertEquals(429, send(filter, spoofed).getStatus());
+
+        RateLimitFilter legacy = filter(0.5, 1, true);
+        assertEquals(200, send(legacy, first).getStatus());
+        assertEquals(200, send(legacy, spoofed).getStatus());
+    }
+
+    @Test
+    @DisplayName("Con un token válido el cubo es el del usuario, no el de la IP")
+    void sessionTokenSelectsUserBucket() throws Exception {
+        SessionTokenService tokens = new SessionTokenService("secreto-de-pruebas", 3600);
+        RateLimitFilter filter = new RateLimitFilter(new RateLimiter(properties(0.5, 1)), tokens, false);
+        User user = new User();
+        user.setId("7");
+        user.setEmail("ana@test.com");
+        user.setRole("veterinarian");
+        MockHttpServletRequest authenticated = request();
+        authenticated.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.issue(user, tokens.newExpiration()));
+        MockHttpServletRequest forged = request();
+        forged.addHeader(HttpHeaders.AUTHORIZATION, "Bearer no-es-un-token");
+
+        assertEquals(200, send(filter, request()).getStatus());
+        assertEquals(200, send(filter, authenticated).getStatus());
+        assertEquals(429, send(filter, forged).getStatus());
+        assertEquals(429, send(filter, authenticated).getStatus());
+    }
+
+    private static RateLimitProperties properties(double rate, int burst) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaults().setRate(rate);
+        properties.getDefaults().setBurst(burst);
+        return properties;
+    }
+
+    private static RateLimitFilter filter(double rate, int burst, boolean legacyHeaders) {
+        return new RateLimitFilter(new RateLimiter(properties(rate, burst)),
+                new SessionTokenService("secreto-de-pruebas", 3600), legacyHeaders);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pets");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
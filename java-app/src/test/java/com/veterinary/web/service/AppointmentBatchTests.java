@@ -0,0 +1,125 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.model.AppointmentBatchRequest;
+import com.veterinary.web.model.AppointmentBatchResult;
+import com.veterinary.web.repository.AppointmentRepository;
+
+/**
+ * Pruebas de {@link AppointmentService#applyBatch}: reactivar una cita cancelada vuelve a ocupar
+ * su hueco, así que debe pasar por la misma comprobación de solapamiento que una reserva.
+ */
+public class AppointmentBatchTests {
+    private static final String CONFLICT = "Conflicto: el veterinario ya tiene una cita en ese horario";
+
+    private AppointmentRepository repository;
+    private AppointmentService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new AppointmentRepository();
+        service = new AppointmentService(repository);
+    }
+
+    @Test
+    @DisplayName("Reactivar con 'status' una cita cancelada en un hueco ya ocupado es un conflicto")
+    void statusReactivationIntoTakenSlotConflicts() {
+        Appointment cancelled = cancelledIn("09:00");
+        Appointment active = service.create(appointment("09:00"));
+
+        AppointmentBatchResult result = service.applyBatch(Arrays.asList(status(cancelled.getId(), "pendiente")), false);
+
+        assertEquals(1, result.getFailed());
+        assertEquals(400, result.getResults().get(0).getStatus());
+        assertEquals(CONFLICT, result.getResults().get(0).getError());
+        assertEquals("cancelada", repository.findById(cancelled.getId()).get().getStatus());
+        assertEquals("pendiente", repository.findById(active.getId()).get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Reactivar con 'update' sin mover la cita también comprueba el hueco")
+    void updateReactivationIntoTakenSlotConflicts() {
+        Appointment cancelled = cancelledIn("09:00");
+        service.create(appointment("09:00"));
+        Appointment updates = new Appointment();
+        updates.setStatus("confirmada");
+        updates.setReason("Vacunación");
+
+        AppointmentBatchResult result = service.applyBatch(Arrays.asList(update(cancelled.getId(), updates)), false);
+
+        assertEquals(CONFLICT, result.getResults().get(0).getError());
+        Appointment stored = repository.findById(cancelled.getId()).get();
+        assertEquals("cancelada", stored.getStatus());
+        assertEquals("Control general", stored.getReason());
+    }
+
+    @Test
+    @DisplayName("Reactivar en un hueco libre se aplica, pero solo una de dos citas del mismo hueco")
+    void reactivationOfTwoCancelledInSameSlotAcceptsOne() {
+        Appointment first = cancelledIn("10:00");
+        Appointment second = cancelledIn("10:00");
+
+        AppointmentBatchResult result = service.applyBatch(Arrays.asList(
+                status(first.getId(), "pendiente"), status(second.getId(), "pendiente")), false);
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(200, result.getResults().get(0).getStatus());
+        assertEquals(CONFLICT, result.getResults().get(1).getError());
+        assertEquals("pendiente", repository.findById(first.getId()).get().getStatus());
+        assertEquals("cancelada", repository.findById(second.getId()).get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Cancelar y reactivar en el mismo lote deja el hueco a quien lo liberó primero")
+    void cancelThenReactivateWithinBatch() {
+        Appointment cancelled = cancelledIn("11:00");
+        Appointment active = service.create(appointment("11:00"));
+
+        AppointmentBatchResult result = service.applyBatch(Arrays.asList(
+                status(active.getId(), "cancelada"), status(cancelled.getId(), "pendiente")), true);
+
+        assertTrue(result.isApplied());
+        assertEquals("cancelada", repository.findById(active.getId()).get().getStatus());
+        assertEquals("pendiente", repository.findById(cancelled.getId()).get().getStatus());
+    }
+
+    private Appointment cancelledIn(String time) {
+        Appointment a = appointment(time);
+        a.setStatus("cancelada");
+        return service.create(a);
+    }
+
+    private static Appointment appointment(String time) {
+        Appointment a = new Appointment();
+        a.setPetId("1");
+        a.setVeterinarian("Dra. Marta");
+        a.setDate("2026-06-01");
+        a.setTime(time);
+        a.setReason("Control general");
+        return a;
+    }
+
+    private static AppointmentBatchRequest.Operation status(String id, String status) {
+        AppointmentBatchRequest.Operation op = new AppointmentBatchRequest.Operation();
+        op.setOp("status");
+        op.setId(id);
+        op.setStatus(status);
+        return op;
+    }
+
+    private static AppointmentBatchRequest.Operation update(String id, Appointment updates) {
+        AppointmentBatchRequest.Operation op = new AppointmentBatchRequest.Operation();
+        op.setOp("update");
+        op.setId(id);
+        op.setAppointment(updates);
+        return op;
+    }
+}
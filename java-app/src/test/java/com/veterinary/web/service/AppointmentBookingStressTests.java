@@ -0,0 +1,240 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import com.veterinary.web.model.Appointment;
+import com.veterinary.web.repository.AppointmentRepository;
+
+/**
+ * Pruebas de carga concurrente sobre {@link AppointmentService}: muchos hilos reservan, mueven,
+ * cancelan y reactivan citas sobre pocos huecos (veterinario, fecha, hora) para forzar choques.
+ * Tras cada ronda se comprueba que no hay dos citas no canceladas en el mismo hueco y que el
+ * índice de huecos coincide con el contenido del repositorio.
+ * <p>
+ * Cada ronda dura {@code -Dstress.seconds} (2 por defecto) con {@code -Dstress.threads} hilos
+ * (el doble de procesadores, mínimo 4), así que el conjunto cabe en el tiempo de CI.
+ */
+public class AppointmentBookingStressTests {
+    private static final String[] VETS = {"Dr. Ana", "Dr. Luis", "Dra. Marta"};
+    private static final String[] DATES = {"2026-03-02", "2026-03-03"};
+    private static final String[] TIMES = {"09:00", "09:15", "09:30", "09:45"};
+    private static final String CONFLICT = "Conflicto: el veterinario ya tiene una cita en ese horario";
+
+    private final int seconds = Integer.getInteger("stress.seconds", 2);
+    private final int threads = Integer.getInteger("stress.threads", Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+    @RepeatedTest(3)
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    @DisplayName("Reservas, cambios, cancelaciones y reactivaciones concurrentes no duplican huecos")
+    void concurrentBookingsNeverDoubleBook(RepetitionInfo repetition) throws Exception {
+        AppointmentRepository repository = new AppointmentRepository();
+        AppointmentService service = new AppointmentService(repository);
+        LongAdder operations = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            randomOperation(service, repository, random);
+                        } catch (IllegalArgumentException e) {
+                            if (!CONFLICT.equals(e.getMessage())) {
+                                throw e;
+                            }
+                            conflicts.increment();
+                        }
+                        operations.increment();
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "booking-stress-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(seconds + 30, TimeUnit.SECONDS), "Los hilos de carga no terminaron a tiempo");
+        double elapsed = (System.nanoTime() - began) / 1e9;
+
+        assertTrue(errors.isEmpty(), () -> "Errores inesperados: " + errors);
+        assertAtMostOneActivePerSlot(repository);
+        assertSlotIndexMatchesRepository(repository);
+        System.out.printf("Ronda %d: %d hilos, %d operaciones (%.0f ops/s), %d rechazadas por solapamiento, %d citas%n",
+                repetition.getCurrentRepetition(), threads, operations.sum(), operations.sum() / elapsed,
+                conflicts.sum(), repository.count());
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("De muchas reservas simultáneas del mismo hueco solo una se acepta")
+    void simultaneousBookingsOfOneSlotAcceptOne() throws Exception {
+        AppointmentRepository repository = new AppointmentRepository();
+        AppointmentService service = new AppointmentService(repository);
+        for (int round = 0; round < 200; round++) {
+            String time = String.format("%02d:%02d", 8 + round / 4 % 12, round % 4 * 15);
+            String date = "2026-04-" + String.format("%02d", 1 + round / 48);
+            AtomicInteger accepted = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                        service.create(appointment(VETS[0], date, time));
+                        accepted.incrementAndGet();
+                    } catch (IllegalArgumentException | InterruptedException e) {
+                        // Solapamiento esperado para todos menos uno
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertEquals(1, accepted.get(), "Hueco " + date + " " + time + " reservado más de una vez");
+        }
+        assertAtMostOneActivePerSlot(repository);
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    @DisplayName("Una cita borrada no reaparece por una modificación simultánea")
+    void deleteRacingUpdatesStaysDeleted() throws Exception {
+        AppointmentRepository repository = new AppointmentRepository();
+        AppointmentService service = new AppointmentService(repository);
+        for (int round = 0; round < 500; round++) {
+            String id = service.create(appointment(VETS[round % VETS.length], DATES[round % DATES.length],
+                    String.format("%02d:%02d", 8 + round / 4 % 12, round % 4 * 15))).getId();
+            CountDownLatch start = new CountDownLatch(1);
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean deleter = t == 0;
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                        if (deleter) {
+                            service.delete(id);
+                            return;
+                        }
+                        for (int i = 0; i < 20; i++) {
+                            Appointment updates = new Appointment();
+                            updates.setReason("Revisión " + i);
+                            service.update(id, updates);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        if (!"Cita no encontrada".equals(e.getMessage())) {
+                            errors.add(e);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertTrue(errors.isEmpty(), () -> "Errores inesperados: " + errors);
+            assertFalse(repository.findById(id).isPresent(), "La cita " + id + " reapareció tras borrarla");
+        }
+        assertEquals(0, repository.count());
+        assertSlotIndexMatchesRepository(repository);
+    }
+
+    private static void randomOperation(AppointmentService service, AppointmentRepository repository, ThreadLocalRandom random) {
+        int count = repository.count();
+        int choice = count == 0 ? 0 : random.nextInt(100);
+        if (choice < 35) {
+            service.create(appointment(pick(VETS, random), pick(DATES, random), pick(TIMES, random)));
+            return;
+        }
+        String id = String.valueOf(1 + random.nextInt(count));
+        Appointment updates = new Appointment();
+        if (choice < 60) {
+            // Reprogramar: cambia hora y a veces veterinario o fecha
+            updates.setTime(pick(TIMES, random));
+            if (random.nextBoolean()) {
+                updates.setVeterinarian(pick(VETS, random));
+            }
+            if (random.nextInt(4) == 0) {
+                updates.setDate(pick(DATES, random));
+            }
+        } else if (choice < 75) {
+            updates.setStatus("cancelada");
+        } else if (choice < 90) {
+            updates.setStatus("pendiente");
+        } else {
+            updates.setReason("Revisión " + random.nextInt(1000));
+        }
+        service.update(id, updates);
+    }
+
+    private static Appointment appointment(String veterinarian, String date, String time) {
+        Appointment a = new Appointment();
+        a.setPetId("1");
+        a.setVeterinarian(veterinarian);
+        a.setDate(date);
+        a.setTime(time);
+        a.setReason("Control general");
+        return a;
+    }
+
+    private static String pick(String[] values, ThreadLocalRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void assertAtMostOneActivePerSlot(AppointmentRepository repository) {
+        Map<String, List<String>> bySlot = new HashMap<>();
+        for (Appointment a : repository.findAll()) {
+            if (!"cancelada".equalsIgnoreCase(a.getStatus())) {
+                bySlot.computeIfAbsent(a.getVeterinarian() + " " + a.getDate() + " " + a.getTime(), k -> new ArrayList<>())
+                        .add(a.getId());
+            }
+        }
+        bySlot.forEach((slot, ids) -> assertTrue(ids.size() <= 1, "Hueco duplicado " + slot + ": citas " + ids));
+    }
+
+    private static void assertSlotIndexMatchesRepository(AppointmentRepository repository) {
+        for (String vet : VETS) {
+            for (String date : DATES) {
+                long expected = repository.findAll().stream()
+                        .filter(a -> vet.equals(a.getVeterinarian()) && date.equals(a.getDate()))
+                        .count();
+                assertEquals(expected, repository.findByVeterinarianAndDate(vet, date).size(),
+                        "Índice de huecos desincronizado para " + vet + " " + date);
+            }
+        }
+    }
+}
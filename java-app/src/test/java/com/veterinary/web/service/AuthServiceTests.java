@@ -0,0 +1,104 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.veterinary.web.api.AuthController;
+import com.veterinary.web.model.User;
+import com.veterinary.web.repository.UserRepository;
+
+/**
+ * Pruebas de {@link AuthService}: el login sustituye las contraseñas heredadas en texto plano (o
+ * con menos iteraciones) por un hash PBKDF2 actual, y con el pool de hash saturado el login se
+ * rechaza al momento con 503 en lugar de esperar.
+ */
+public class AuthServiceTests {
+    private static final String SEEDED = "veterinario@test.com";
+
+    @Test
+    @DisplayName("El login cambia la contraseña en texto plano por un hash PBKDF2")
+    void plaintextPasswordIsUpgradedOnLogin() {
+        UserRepository users = new UserRepository();
+        AuthService auth = new AuthService(users, new PasswordHasher(1000), 1, 4);
+        assertEquals("123456", users.findByEmail(SEEDED).orElseThrow().getPassword());
+
+        User user = auth.login(SEEDED, "123456").join();
+
+        String stored = users.findByEmail(SEEDED).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("pbkdf2-sha256$1000$"), stored);
+        assertEquals(stored, user.getPassword());
+        assertEquals("1", user.getId());
+        // La nueva forma sigue aceptando la contraseña correcta y solo ella
+        assertEquals(stored, auth.login(SEEDED, "123456").join().getPassword());
+        CompletionException wrong = assertThrows(CompletionException.class, () -> auth.login(SEEDED, "654321").join());
+        assertEquals("Credenciales inválidas", wrong.getCause().getMessage());
+        assertThrows(CompletionException.class, () -> auth.login(SEEDED, stored).join());
+        auth.shutdown();
+    }
+
+    @Test
+    @DisplayName("Subir las iteraciones recalcula el hash en el siguiente login")
+    void weakerHashIsUpgradedOnLogin() {
+        UserRepository users = new UserRepository();
+        AuthService weak = new AuthService(users, new PasswordHasher(1000), 1, 4);
+        weak.login(SEEDED, "123456").join();
+        AuthService strong = new AuthService(users, new PasswordHasher(2000), 1, 4);
+
+        strong.login(SEEDED, "123456").join();
+
+        assertTrue(users.findByEmail(SEEDED).orElseThrow().getPassword().startsWith("pbkdf2-sha256$2000$"));
+        weak.shutdown();
+        strong.shutdown();
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Con el pool de hash saturado el login responde 503 con Retry-After")
+    void saturatedHashPoolAnswersServiceUnavailable() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher slow = new PasswordHasher(1000) {
+            @Override
+            public boolean matches(String password, String stored) {
+                hashing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.matches(password, stored);
+            }
+        };
+        AuthService auth = new AuthService(new UserRepository(), slow, 1, 1);
+        AuthController controller = new AuthController(auth, new SessionTokenService("secreto-de-pruebas", 3600));
+
+        CompletableFuture<User> running = auth.login(SEEDED, "123456");
+        hashing.await();
+        CompletableFuture<User> queued = auth.login(SEEDED, "123456");
+        assertThrows(RejectedExecutionException.class, () -> auth.login(SEEDED, "123456"));
+        ResponseEntity<?> busy = controller.login(Map.of("email", SEEDED, "password", "123456"),
+                new MockHttpServletRequest("POST", "/api/auth/login")).get();
+        release.countDown();
+
+        assertEquals(503, busy.getStatusCodeValue());
+        assertEquals("1", busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        // Las peticiones ya admitidas terminan con normalidad
+        assertEquals("1", running.join().getId());
+        assertEquals("1", queued.join().getId());
+        assertEquals(0, auth.getHashQueueSize());
+        auth.shutdown();
+    }
+}
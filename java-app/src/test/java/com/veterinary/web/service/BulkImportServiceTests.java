@@ -0,0 +1,137 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinary.web.model.ImportReport;
+import com.veterinary.web.repository.AppointmentRepository;
+import com.veterinary.web.repository.PetRepository;
+
+/**
+ * Pruebas de {@link BulkImportService}: las filas válidas se guardan y cada fila inválida o en
+ * conflicto aparece en el informe con su número de línea, sin cortar la importación.
+ */
+public class BulkImportServiceTests {
+    private static final String CONFLICT = "Conflicto: el veterinario ya tiene una cita en ese horario";
+    private static final String NOT_AN_OBJECT = "Cada línea debe ser un objeto JSON";
+
+    private AppointmentRepository appointmentRepository;
+    private PetRepository petRepository;
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = new AppointmentRepository();
+        petRepository = new PetRepository();
+        // Lotes de 2 para que las filas de un mismo lote y de lotes distintos se mezclen
+        importService = new BulkImportService(new PetService(petRepository),
+                new AppointmentService(appointmentRepository), new ObjectMapper(), 2, 100);
+    }
+
+    @Test
+    @DisplayName("NDJSON de citas con filas válidas, inválidas y en conflicto")
+    void ndjsonAppointmentsReportEveryRow() throws IOException {
+        String body = String.join("\n",
+                appointment("09:00"),
+                "null",
+                "[1, 2]",
+                "{\"petId\": \"1\", \"time\":",
+                "{\"petId\": \"1\", \"veterinarian\": \"Dra. Marta\", \"date\": \"2026-06-01\"}",
+                appointment("09:00"),
+                "",
+                "\"texto\"",
+                appointment("10:00"));
+
+        ImportReport report = importService.importAppointments(stream(body), BulkImportService.Format.NDJSON);
+
+        assertEquals(8, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(6, report.getFailed());
+        assertFalse(report.isErrorsTruncated());
+        Map<Long, String> errors = errors(report);
+        assertEquals(NOT_AN_OBJECT, errors.get(2L));
+        assertEquals(NOT_AN_OBJECT, errors.get(3L));
+        assertTrue(errors.get(4L).startsWith("JSON inválido"), errors.get(4L));
+        assertEquals("Campos requeridos: petId, veterinarian, date, time", errors.get(5L));
+        assertEquals(CONFLICT, errors.get(6L));
+        assertEquals(NOT_AN_OBJECT, errors.get(8L));
+        assertEquals(6, errors.size());
+        assertEquals(2, appointmentRepository.count());
+    }
+
+    @Test
+    @DisplayName("Una fila 'null' en NDJSON de mascotas no interrumpe el resto")
+    void ndjsonPetsRejectNullRows() throws IOException {
+        String body = "{\"name\": \"Luna\", \"type\": \"perro\"}\nnull\n{\"name\": \"Milo\", \"type\": \"gato\"}\n";
+
+        ImportReport report = importService.importPets(stream(body), BulkImportService.Format.NDJSON);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(NOT_AN_OBJECT, errors(report).get(2L));
+        assertEquals(2, petRepository.count());
+    }
+
+    @Test
+    @DisplayName("CSV de citas informa los registros en conflicto por número de registro")
+    void csvAppointmentsReportConflicts() throws IOException {
+        String body = "petId,veterinarian,date,time\n"
+                + "1,Dra. Marta,2026-06-01,09:00\n"
+                + "2,Dra. Marta,2026-06-01,09:00\n"
+                + "3,Dra. Marta,2026-06-01,09:15\n";
+
+        ImportReport report = importService.importAppointments(stream(body), BulkImportService.Format.CSV);
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getImported());
+        assertEquals(CONFLICT, errors(report).get(2L));
+    }
+
+    @Test
+    @DisplayName("Las filas con id se rechazan y no sobrescriben registros existentes")
+    void rowsWithIdAreRejected() throws IOException {
+        importService.importPets(stream("{\"name\": \"Luna\", \"type\": \"perro\"}"), BulkImportService.Format.NDJSON);
+        String id = petRepository.findAll().get(0).getId();
+        String body = "{\"id\": \"" + id + "\", \"name\": \"Impostor\", \"type\": \"gato\"}\n"
+                + "{\"name\": \"Milo\", \"type\": \"gato\"}\n";
+
+        ImportReport report = importService.importPets(stream(body), BulkImportService.Format.NDJSON);
+        ImportReport csv = importService.importAppointments(
+                stream("id,petId,veterinarian,date,time\n1,1,Dra. Marta,2026-06-01,09:00\n"), BulkImportService.Format.CSV);
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getImported());
+        assertEquals("La importación no admite el campo id: los ids los asigna el servidor", errors(report).get(1L));
+        assertEquals("Luna", petRepository.findById(id).orElseThrow().getName());
+        assertEquals(2, petRepository.count());
+        assertEquals(0, csv.getImported());
+        assertEquals(0, appointmentRepository.count());
+    }
+
+    private static String appointment(String time) {
+        return "{\"petId\": \"1\", \"veterinarian\": \"Dra. Marta\", \"date\": \"2026-06-01\", \"time\": \"" + time + "\"}";
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<Long, String> errors(ImportReport report) {
+        Map<Long, String> errors = new LinkedHashMap<>();
+        for (ImportReport.RowError error : report.getErrors()) {
+            errors.put(error.getRow(), error.getError());
+        }
+        return errors;
+    }
+}
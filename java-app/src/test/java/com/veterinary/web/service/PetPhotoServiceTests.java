@@ -0,0 +1,88 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.veterinary.web.model.Pet;
+import com.veterinary.web.repository.PetRepository;
+
+/**
+ * Pruebas de {@link PetPhotoService}: el tipo de la foto se decide por su contenido y no por el
+ * nombre ni el Content-Type de la subida, y un fichero que no es imagen se rechaza sin dejar
+ * restos ni cambiar la foto anterior.
+ */
+public class PetPhotoServiceTests {
+    @TempDir
+    Path dir;
+
+    private PetService petService;
+    private PetPhotoService photoService;
+    private String petId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        petService = new PetService(new PetRepository());
+        photoService = new PetPhotoService(petService, dir.toString(), 1024 * 1024);
+        Pet pet = new Pet();
+        pet.setName("Luna");
+        pet.setType("perro");
+        petId = petService.create(pet).getId();
+    }
+
+    @Test
+    @DisplayName("Una imagen PNG se guarda con su tipo y genera miniaturas")
+    void pngUploadIsStored() throws Exception {
+        byte[] png = png(300, 200);
+
+        photoService.store(petId, new MockMultipartFile("file", "luna.bin", "application/octet-stream", png));
+
+        PetPhotoService.Photo photo = photoService.photo(petId).orElseThrow();
+        assertEquals("image/png", photo.getContentType());
+        assertEquals(png.length, photo.getSize());
+        assertArrayEquals(png, Files.readAllBytes(photo.getPath()));
+        BufferedImage thumbnail = ImageIO.read(photoService.thumbnail(petId, 64).orElseThrow().getPath().toFile());
+        assertEquals(64, Math.max(thumbnail.getWidth(), thumbnail.getHeight()));
+    }
+
+    @Test
+    @DisplayName("Un fichero que no es imagen se rechaza aunque diga ser PNG")
+    void nonImageUploadIsRejected() throws Exception {
+        byte[] png = png(10, 10);
+        photoService.store(petId, new MockMultipartFile("file", "luna.png", "image/png", png));
+        MockMultipartFile script = new MockMultipartFile("file", "foto.png", "image/png",
+                "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> photoService.store(petId, script));
+
+        assertEquals("Formato de imagen no soportado (JPEG, PNG o GIF)", error.getMessage());
+        // La foto anterior sigue intacta y no quedan ficheros temporales
+        PetPhotoService.Photo photo = photoService.photo(petId).orElseThrow();
+        assertArrayEquals(png, Files.readAllBytes(photo.getPath()));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.noneMatch(p -> p.getFileName().toString().endsWith(".tmp")));
+        }
+        assertThrows(IllegalArgumentException.class, () -> photoService.store("999",
+                new MockMultipartFile("file", "luna.png", "image/png", png)));
+        assertThrows(IllegalArgumentException.class, () -> photoService.thumbnail(petId, 100));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+package com.veterinary.web.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.veterinary.web.model.User;
+
+/**
+ * Pruebas de {@link SessionTokenService}: un token emitido se verifica con la misma identidad, y
+ * cualquier cambio en el contenido o la firma, la caducidad o el logout lo invalidan.
+ */
+public class SessionTokenServiceTests {
+    private static final String SECRET = "secreto-de-pruebas";
+
+    private SessionTokenService tokens;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokens = new SessionTokenService(SECRET, 3600);
+        user = new User();
+        user.setId("7");
+        user.setEmail("ana@test.com");
+        user.setRole("veterinarian");
+    }
+
+    @Test
+    @DisplayName("Un token emitido se verifica y conserva la identidad")
+    void issueAndVerifyRoundTrip() {
+        long expiresAt = tokens.newExpiration();
+        String token = tokens.issue(user, expiresAt);
+
+        SessionTokenService.Session session = tokens.verify(token).orElseThrow();
+
+        assertEquals("7", session.getUserId());
+        assertEquals("ana@test.com", session.getEmail());
+        assertEquals("veterinarian", session.getRole());
+        assertEquals(expiresAt, session.getExpiresAt());
+        assertNotEquals(tokens.verify(tokens.issue(user, expiresAt)).orElseThrow().getTokenId(), session.getTokenId());
+        // Otra instancia con el mismo secreto también lo acepta
+        assertTrue(new SessionTokenService(SECRET, 3600).verify(token).isPresent());
+    }
+
+    @Test
+    @DisplayName("Cambiar el contenido o la firma invalida el token")
+    void tamperedTokenIsRejected() {
+        String token = tokens.issue(user, tokens.newExpiration());
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("veterinarian", "admin").getBytes(StandardCharsets.UTF_8));
+        String signature = token.substring(dot + 1);
+        String otherSignature = (signature.charAt(0) == 'A' ? 'B' : 'A') + signature.substring(1);
+
+        assertFalse(tokens.verify(forged + token.substring(dot)).isPresent());
+        assertFalse(tokens.verify(token.substring(0, dot + 1) + otherSignature).isPresent());
+        assertFalse(tokens.verify(token.substring(0, dot)).isPresent());
+        assertFalse(tokens.verify(token + "!").isPresent());
+        assertFalse(tokens.verify(null).isPresent());
+        assertFalse(new SessionTokenService("otro-secreto", 3600).verify(token).isPresent());
+    }
+
+    @Test
+    @DisplayName("Un token caducado no se acepta")
+    void expiredTokenIsRejected() {
+        String expired = tokens.issue(user, System.currentTimeMillis() - 1);
+        SessionTokenService noTtl = new SessionTokenService(SECRET, 0);
+
+        assertFalse(tokens.verify(expired).isPresent());
+        assertFalse(noTtl.verify(noTtl.issue(user, noTtl.newExpiration())).isPresent());
+    }
+
+    @Test
+    @DisplayName("Tras el logout el token deja de valer, pero no los demás del usuario")
+    void revokedTokenIsRejected() {
+        String token = tokens.issue(user, tokens.newExpiration());
+        String other = tokens.issue(user, tokens.newExpiration());
+
+        tokens.revoke(tokens.verify(token).orElseThrow());
+
+        assertFalse(tokens.verify(token).isPresent());
+        assertTrue(tokens.verify(other).isPresent());
+        assertEquals(1, tokens.getRevokedCount());
+    }
+}